@@ -0,0 +1,1017 @@
+package io.github.kglowins.gbcontourplot;
+
+import de.erichseifert.vectorgraphics2d.Document;
+import de.erichseifert.vectorgraphics2d.Processor;
+import de.erichseifert.vectorgraphics2d.Processors;
+import de.erichseifert.vectorgraphics2d.VectorGraphics2D;
+import de.erichseifert.vectorgraphics2d.intermediate.CommandSequence;
+import de.erichseifert.vectorgraphics2d.util.PageSize;
+import io.github.kglowins.gbparameters.gbcd.SymmetryAxis;
+import io.github.kglowins.gbcontourplot.graphics.ColoredPolygon;
+import io.github.kglowins.gbcontourplot.graphics.ColoredRegion;
+import io.github.kglowins.gbcontourplot.graphics.Coordinates2D;
+import io.github.kglowins.gbcontourplot.graphics.LineEnds;
+import io.github.kglowins.gbcontourplot.graphics.Polyline;
+import io.github.kglowins.gbcontourplot.graphics.RegionCropStyle;
+import io.github.kglowins.gbcontourplot.graphics.RegionPredicate;
+import io.github.kglowins.gbcontourplot.grid.Heatmap;
+import io.github.kglowins.gbparameters.utils.SaferMath;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.math3.util.FastMath;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.drawCurve;
+import static java.lang.Math.PI;
+import static java.lang.Math.atan;
+import static java.lang.Math.cos;
+import static java.lang.Math.round;
+import static java.lang.Math.sin;
+import static java.lang.Math.sqrt;
+import static java.lang.Math.tan;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.stream.IntStream.rangeClosed;
+
+// Everything a ContourPlot draws, without Swing: the plot elements, the layout and the exports. The elements read
+// the layout when they paint, so a renderer is built and painted off the event dispatch thread as well, e.g. in a
+// batch; ContourPlot shows one in a panel.
+@Slf4j
+public class ContourPlotRenderer {
+
+    @Getter
+    private int topMargin = 0;
+    @Getter
+    private int bottomMargin = 0;
+    @Getter
+    private int leftMargin = 0;
+    @Getter
+    private int rightMargin = 0;
+    @Getter
+    private int contourWidth = 600;
+    @Getter
+    private int contourHeight = 600;
+    // outlining the iso band paths by one pixel as well as filling them
+    @Getter
+    private boolean isoBandOutlines = true;
+
+    private double contourMinX;
+    private double contourMaxX;
+    private double contourMinY;
+    private double contourMaxY;
+
+    private List<Consumer<Graphics2D>> plotElements;
+
+    // bumped by every change of the plot elements, margins or contour size
+    private volatile int contentVersion;
+    // bumped by every change of the margins or contour size, recompiles DeviceGeometry
+    private volatile int layoutVersion;
+
+    public ContourPlotRenderer(double contourMinX, double contourMaxX, double contourMinY, double contourMaxY) {
+        this.contourMinX = contourMinX;
+        this.contourMaxX = contourMaxX;
+        this.contourMinY = contourMinY;
+        this.contourMaxY = contourMaxY;
+        plotElements = new LinkedList<>();
+    }
+
+    public ContourPlotRenderer setTopMargin(int topMargin) {
+        this.topMargin = topMargin;
+        updateDimensions();
+        return this;
+    }
+
+    public ContourPlotRenderer setBottomMargin(int bottomMargin) {
+        this.bottomMargin = bottomMargin;
+        updateDimensions();
+        return this;
+    }
+
+    public ContourPlotRenderer setLeftMargin(int leftMargin) {
+        this.leftMargin = leftMargin;
+        updateDimensions();
+        return this;
+    }
+
+    public ContourPlotRenderer setRightMargin(int rightMargin) {
+        this.rightMargin = rightMargin;
+        updateDimensions();
+        return this;
+    }
+
+    public ContourPlotRenderer setContourWidth(int contourWidth) {
+        this.contourWidth = contourWidth;
+        updateDimensions();
+        return this;
+    }
+
+    public ContourPlotRenderer setContourHeight(int contourHeight) {
+        this.contourHeight = contourHeight;
+        updateDimensions();
+        return this;
+    }
+
+    public ContourPlotRenderer setIsoBandOutlines(boolean isoBandOutlines) {
+        this.isoBandOutlines = isoBandOutlines;
+        contentVersion++;
+        return this;
+    }
+
+    private void updateDimensions() {
+        layoutVersion++;
+        contentVersion++;
+    }
+
+    public void clear() {
+        plotElements = new LinkedList<>();
+        contentVersion++;
+    }
+
+    public ContourPlotRenderer add(Consumer<Graphics2D> plotElement) {
+        plotElements.add(plotElement);
+        contentVersion++;
+        return this;
+    }
+
+    int getContentVersion() {
+        return contentVersion;
+    }
+
+    // a copy of the elements, so that painting it does not race with elements added meanwhile
+    List<Consumer<Graphics2D>> elements() {
+        return new ArrayList<>(plotElements);
+    }
+
+    BufferedImage renderImage(List<Consumer<Graphics2D>> elements) {
+        BufferedImage bufferedImage = new BufferedImage(getTotalWidth(), getTotalHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = bufferedImage.createGraphics();
+        paintElements(g2d, elements);
+        g2d.dispose();
+        return bufferedImage;
+    }
+
+    private void paintElements(Graphics2D g2d, List<Consumer<Graphics2D>> elements) {
+        g2d.transform(getBaseTransform());
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        elements.forEach(e -> e.accept(g2d));
+    }
+
+    int getTotalWidth() {
+        return leftMargin + contourWidth + rightMargin;
+    }
+
+    int getTotalHeight() {
+        return bottomMargin + contourHeight + topMargin;
+    }
+
+    private AffineTransform getBaseTransform() {
+        AffineTransform tx = AffineTransform.getScaleInstance(1, -1);
+        tx.translate(0, -(topMargin + bottomMargin + contourHeight));
+        return tx;
+    }
+
+    public void toVectorFile(String format, PageSize pageSize, String path) {
+        Graphics2D vg2d = new VectorGraphics2D();
+        vg2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        vg2d.setTransform(getBaseTransform());
+        plotElements.forEach(e -> e.accept(vg2d));
+        CommandSequence commands = ((VectorGraphics2D) vg2d).getCommands();
+        Processor processor = Processors.get(format);
+        Document document = processor.getDocument(commands, pageSize);
+        try {
+            document.writeTo(new FileOutputStream(path));
+        } catch (IOException e) {
+            log.error("Failed to export the contour plot to {}", format, e);
+        }
+    }
+
+    // the plot as toRasterFile writes it, for callers that encode or post-process the image themselves
+    public BufferedImage toImage() {
+        return renderImage(elements());
+    }
+
+    public void toRasterFile(String format, String path) {
+        BufferedImage bufferedImage = renderImage(plotElements);
+        try {
+            ImageIO.write(bufferedImage, format, new File(path));
+        } catch (IOException e) {
+            log.error("Failed to export the contour plot to {}", format, e);
+        }
+    }
+
+    // For exports too large to paint in one go: tiles of tileSize x tileSize pixels are painted on parallelism
+    // threads and streamed into the encoder band after band, so the plot elements have to be thread-safe
+    public void toTiledRasterFile(String format, String path, int tileSize, int parallelism) {
+        long startMillis = Instant.now().toEpochMilli();
+        ExecutorService executor = newTilePool(parallelism);
+        try {
+            ImageIO.write(tiledRaster(tileSize, executor), format, new File(path));
+        } catch (IOException e) {
+            log.error("Failed to export the contour plot to {}", format, e);
+        } finally {
+            executor.shutdown();
+        }
+        log.debug("toTiledRasterFile took {} millis.", Instant.now().toEpochMilli() - startMillis);
+    }
+
+    // the whole image, painted tile by tile on parallelism threads
+    public BufferedImage toTiledImage(int tileSize, int parallelism) {
+        ExecutorService executor = newTilePool(parallelism);
+        try {
+            return tiledRaster(tileSize, executor).toBufferedImage();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService newTilePool(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1");
+        }
+        return Executors.newFixedThreadPool(parallelism);
+    }
+
+    private TiledRaster tiledRaster(int tileSize, ExecutorService executor) {
+        List<Consumer<Graphics2D>> elements = elements();
+        return new TiledRaster(getTotalWidth(), getTotalHeight(), tileSize, executor,
+            g2d -> paintElements(g2d, elements));
+    }
+
+    public ContourPlotRenderer setBackgroundAndClear(Color color) {
+        add(g2d -> {
+            g2d.setBackground(color);
+            int totalWidth = leftMargin + contourWidth + rightMargin;
+            int totalHeight = bottomMargin + contourHeight + topMargin;
+            g2d.clearRect(0, 0, totalWidth, totalHeight);
+        });
+        return this;
+    }
+
+    public ContourPlotRenderer addIsoBands(List<ColoredPolygon> polygons) {
+        add(isoBandsPlotter(polygons));
+        return this;
+    }
+
+    public Consumer<Graphics2D> isoBandsPlotter(List<ColoredPolygon> polygons) {
+        return isoBandsPlotterIn(polygons, null, null);
+    }
+
+    public ContourPlotRenderer addIsoBands(List<ColoredPolygon> polygons,
+                                   BiFunction<Double, Double, Boolean> regionFunction,
+                                   RegionCropStyle regionCropStyle) {
+        return addIsoBandsIn(polygons, RegionPredicate.of(regionFunction), regionCropStyle);
+    }
+
+    public ContourPlotRenderer addIsoBandsIn(List<ColoredPolygon> polygons,
+                                     RegionPredicate region,
+                                     RegionCropStyle regionCropStyle) {
+        add(isoBandsPlotterIn(polygons, region, regionCropStyle));
+        return this;
+    }
+
+    public Consumer<Graphics2D> isoBandsPlotter(List<ColoredPolygon> polygons,
+                                                BiFunction<Double, Double, Boolean> regionFunction,
+                                                RegionCropStyle regionCropStyle) {
+        return isoBandsPlotterIn(polygons, RegionPredicate.of(regionFunction), regionCropStyle);
+    }
+
+    public Consumer<Graphics2D> isoBandsPlotterIn(List<ColoredPolygon> polygons,
+                                                  RegionPredicate region,
+                                                  RegionCropStyle regionCropStyle) {
+        DeviceGeometry.Cache<DeviceGeometry.Polygons> device =
+            new DeviceGeometry.Cache<>(() -> compileIsoBands(polygons, region, regionCropStyle));
+        return g2d -> device.get(layoutVersion).draw(g2d, isoBandOutlines);
+    }
+
+    private DeviceGeometry.Polygons compileIsoBands(List<ColoredPolygon> polygons, RegionPredicate region,
+                                                    RegionCropStyle regionCropStyle) {
+        List<ColoredPolygon> visible = new ArrayList<>();
+        polygons.forEach(polygon -> {
+            if (nonNull(region) && nonNull(regionCropStyle)) {
+                boolean allOutside = true;
+                boolean oneOutside = false;
+
+                for (Coordinates2D coords : polygon.getPolygon()) {
+                    if (region.contains(coords.x(), coords.y())) {
+                        allOutside = false;
+                    } else {
+                        oneOutside = true;
+                    }
+                }
+                if ((regionCropStyle == RegionCropStyle.INCLUSIVE && allOutside)
+                    || (regionCropStyle == RegionCropStyle.EXCLUSIVE && oneOutside)) {
+                    return;
+                }
+            }
+            visible.add(polygon);
+        });
+
+        int[][] xs = new int[visible.size()][];
+        int[][] ys = new int[visible.size()][];
+        Color[] colors = new Color[visible.size()];
+        for (int polygon = 0; polygon < visible.size(); polygon++) {
+            List<Coordinates2D> points = visible.get(polygon).getPolygon();
+            xs[polygon] = new int[points.size()];
+            ys[polygon] = new int[points.size()];
+            for (int point = 0; point < points.size(); point++) {
+                xs[polygon][point] = toDeviceX(points.get(point).x());
+                ys[polygon][point] = toDeviceY(points.get(point).y());
+            }
+            colors[polygon] = visible.get(polygon).getColor();
+        }
+        return new DeviceGeometry.Polygons(xs, ys, colors);
+    }
+
+    public ContourPlotRenderer addHeatmap(Heatmap heatmap) {
+        add(heatmapPlotter(heatmap));
+        return this;
+    }
+
+    // the heatmap coloured pixel by pixel at the resolution of the contour area, once per layout
+    public Consumer<Graphics2D> heatmapPlotter(Heatmap heatmap) {
+        DeviceGeometry.Cache<BufferedImage> image = new DeviceGeometry.Cache<>(() -> heatmap.toImage(
+            contourWidth, contourHeight, contourMinX, contourMaxX, contourMinY, contourMaxY));
+        return g2d -> g2d.drawImage(image.get(layoutVersion),
+            new AffineTransform(1, 0, 0, -1, leftMargin, bottomMargin + contourHeight), null);
+    }
+
+    public ContourPlotRenderer addIsoRegions(List<ColoredRegion> regions) {
+        add(isoRegionsPlotter(regions));
+        return this;
+    }
+
+    public Consumer<Graphics2D> isoRegionsPlotter(List<ColoredRegion> regions) {
+        return isoRegionsPlotter(regions, null);
+    }
+
+    // contourClip is given in contour coordinates, e.g. PlotUtils.circle(1)
+    public ContourPlotRenderer addIsoRegions(List<ColoredRegion> regions, Shape contourClip) {
+        add(isoRegionsPlotter(regions, contourClip));
+        return this;
+    }
+
+    // one path per region, the holes are subtracted by their opposite orientation; regions are merged across
+    // cells, so they are clipped to the contour area instead of being cropped polygon by polygon
+    public Consumer<Graphics2D> isoRegionsPlotter(List<ColoredRegion> regions, Shape contourClip) {
+        DeviceGeometry.Cache<DeviceGeometry.Shapes> device = new DeviceGeometry.Cache<>(() -> compileIsoRegions(regions));
+        return g2d -> {
+            Shape previousClip = g2d.getClip();
+            g2d.clip(new Rectangle(leftMargin, bottomMargin, contourWidth, contourHeight));
+            if (nonNull(contourClip)) {
+                g2d.clip(getContourTransform().createTransformedShape(contourClip));
+            }
+            g2d.setStroke(new BasicStroke());
+            device.get(layoutVersion).draw(g2d);
+            g2d.setClip(previousClip);
+        };
+    }
+
+    private DeviceGeometry.Shapes compileIsoRegions(List<ColoredRegion> regions) {
+        Shape[] paths = new Shape[regions.size()];
+        Color[] colors = new Color[regions.size()];
+        for (int index = 0; index < regions.size(); index++) {
+            ColoredRegion region = regions.get(index);
+            Path2D path = new Path2D.Float(Path2D.WIND_NON_ZERO);
+            appendRing(path, region.getOutline());
+            region.getHoles().forEach(hole -> appendRing(path, hole));
+            paths[index] = path;
+            colors[index] = region.getColor();
+        }
+        return new DeviceGeometry.Shapes(paths, colors, true);
+    }
+
+    private AffineTransform getContourTransform() {
+        AffineTransform tx = AffineTransform.getTranslateInstance(leftMargin, bottomMargin);
+        tx.scale(contourWidth / (contourMaxX - contourMinX), contourHeight / (contourMaxY - contourMinY));
+        tx.translate(-contourMinX, -contourMinY);
+        return tx;
+    }
+
+    private void appendRing(Path2D path, List<Coordinates2D> ring) {
+        path.moveTo(toDeviceX(ring.get(0).x()), toDeviceY(ring.get(0).y()));
+        ring.subList(1, ring.size()).forEach(coords -> path.lineTo(toDeviceX(coords.x()), toDeviceY(coords.y())));
+        path.closePath();
+    }
+
+    public ContourPlotRenderer addIsoLines(List<LineEnds> lineEnds, Color color, Stroke stroke) {
+        add(isoLinesPlotter(lineEnds, color, stroke));
+        return this;
+    }
+
+    public Consumer<Graphics2D> isoLinesPlotter(List<LineEnds> lineEnds, Color color, Stroke stroke) {
+        return isoLinesPlotterIn(lineEnds, color, stroke, null, null);
+    }
+
+    public ContourPlotRenderer addIsoLines(List<LineEnds> lineEnds, Color color, Stroke stroke,
+                                   BiFunction<Double, Double, Boolean> regionFunction,
+                                   RegionCropStyle regionCropStyle) {
+        return addIsoLinesIn(lineEnds, color, stroke, RegionPredicate.of(regionFunction), regionCropStyle);
+    }
+
+    public ContourPlotRenderer addIsoLinesIn(List<LineEnds> lineEnds, Color color, Stroke stroke,
+                                     RegionPredicate region,
+                                     RegionCropStyle regionCropStyle) {
+        add(isoLinesPlotterIn(lineEnds, color, stroke, region, regionCropStyle));
+        return this;
+    }
+
+    public Consumer<Graphics2D> isoLinesPlotter(List<LineEnds> lineEnds, Color color, Stroke stroke,
+                                                BiFunction<Double, Double, Boolean> regionFunction,
+                                                RegionCropStyle regionCropStyle) {
+        return isoLinesPlotterIn(lineEnds, color, stroke, RegionPredicate.of(regionFunction), regionCropStyle);
+    }
+
+    public Consumer<Graphics2D> isoLinesPlotterIn(List<LineEnds> lineEnds, Color color, Stroke stroke,
+                                                  RegionPredicate region,
+                                                  RegionCropStyle regionCropStyle) {
+        DeviceGeometry.Cache<DeviceGeometry.Segments> device =
+            new DeviceGeometry.Cache<>(() -> compileIsoLines(lineEnds, region, regionCropStyle));
+        return g2d -> {
+            g2d.setColor(color);
+            g2d.setStroke(stroke);
+            device.get(layoutVersion).draw(g2d);
+        };
+    }
+
+    private DeviceGeometry.Segments compileIsoLines(List<LineEnds> lineEnds, RegionPredicate region,
+                                                    RegionCropStyle regionCropStyle) {
+        int[] ends = new int[4 * lineEnds.size()];
+        int end = 0;
+        for (LineEnds le : lineEnds) {
+            if (nonNull(region) && nonNull(regionCropStyle)) {
+
+                boolean isEnd1InRegion = region.contains(le.x1(), le.y1());
+                boolean isEnd2InRegion = region.contains(le.x2(), le.y2());
+
+                if (regionCropStyle == RegionCropStyle.EXCLUSIVE
+                    && (!isEnd1InRegion || !isEnd2InRegion)) {
+                    continue;
+                }
+
+                if (regionCropStyle == RegionCropStyle.INCLUSIVE
+                    && !isEnd1InRegion && !isEnd2InRegion) {
+                    continue;
+                }
+            }
+
+            ends[end++] = toDeviceX(le.x1());
+            ends[end++] = toDeviceY(le.y1());
+            ends[end++] = toDeviceX(le.x2());
+            ends[end++] = toDeviceY(le.y2());
+        }
+        return new DeviceGeometry.Segments(Arrays.copyOf(ends, end));
+    }
+
+    public ContourPlotRenderer addIsoPolylines(List<Polyline> polylines, Color color, Stroke stroke) {
+        add(isoPolylinesPlotter(polylines, color, stroke));
+        return this;
+    }
+
+    public Consumer<Graphics2D> isoPolylinesPlotter(List<Polyline> polylines, Color color, Stroke stroke) {
+        return isoPolylinesPlotterIn(polylines, color, stroke, null, null);
+    }
+
+    public ContourPlotRenderer addIsoPolylines(List<Polyline> polylines, Color color, Stroke stroke,
+                                       BiFunction<Double, Double, Boolean> regionFunction,
+                                       RegionCropStyle regionCropStyle) {
+        return addIsoPolylinesIn(polylines, color, stroke, RegionPredicate.of(regionFunction), regionCropStyle);
+    }
+
+    public ContourPlotRenderer addIsoPolylinesIn(List<Polyline> polylines, Color color, Stroke stroke,
+                                         RegionPredicate region,
+                                         RegionCropStyle regionCropStyle) {
+        add(isoPolylinesPlotterIn(polylines, color, stroke, region, regionCropStyle));
+        return this;
+    }
+
+    public Consumer<Graphics2D> isoPolylinesPlotter(List<Polyline> polylines, Color color, Stroke stroke,
+                                                    BiFunction<Double, Double, Boolean> regionFunction,
+                                                    RegionCropStyle regionCropStyle) {
+        return isoPolylinesPlotterIn(polylines, color, stroke, RegionPredicate.of(regionFunction), regionCropStyle);
+    }
+
+    // one path per polyline; segments cropped like in isoLinesPlotter break the path
+    public Consumer<Graphics2D> isoPolylinesPlotterIn(List<Polyline> polylines, Color color, Stroke stroke,
+                                                      RegionPredicate region,
+                                                      RegionCropStyle regionCropStyle) {
+        DeviceGeometry.Cache<DeviceGeometry.Shapes> device =
+            new DeviceGeometry.Cache<>(() -> compileIsoPolylines(polylines, color, region, regionCropStyle));
+        return g2d -> {
+            g2d.setColor(color);
+            g2d.setStroke(stroke);
+            device.get(layoutVersion).draw(g2d);
+        };
+    }
+
+    private DeviceGeometry.Shapes compileIsoPolylines(List<Polyline> polylines, Color color,
+                                                      RegionPredicate region, RegionCropStyle regionCropStyle) {
+        Shape[] paths = new Shape[polylines.size()];
+        Color[] colors = new Color[polylines.size()];
+        Arrays.fill(colors, color);
+        for (int index = 0; index < polylines.size(); index++) {
+            Polyline polyline = polylines.get(index);
+            int points = polyline.size();
+            boolean[] inRegion = new boolean[points];
+            for (int point = 0; point < points; point++) {
+                inRegion[point] = isNull(region) || isNull(regionCropStyle)
+                    || region.contains(polyline.xs()[point], polyline.ys()[point]);
+            }
+
+            Path2D path = new Path2D.Float();
+            int segments = polyline.closed() ? points : points - 1;
+            boolean drawing = false;
+            boolean allDrawn = true;
+            for (int segment = 0; segment < segments; segment++) {
+                int next = (segment + 1) % points;
+                boolean visible = regionCropStyle == RegionCropStyle.INCLUSIVE
+                    ? inRegion[segment] || inRegion[next]
+                    : inRegion[segment] && inRegion[next];
+                if (!visible) {
+                    drawing = false;
+                    allDrawn = false;
+                    continue;
+                }
+                if (!drawing) {
+                    path.moveTo(toDeviceX(polyline.xs()[segment]), toDeviceY(polyline.ys()[segment]));
+                    drawing = true;
+                }
+                path.lineTo(toDeviceX(polyline.xs()[next]), toDeviceY(polyline.ys()[next]));
+            }
+            if (polyline.closed() && allDrawn) {
+                path.closePath();
+            }
+            paths[index] = path;
+        }
+        return new DeviceGeometry.Shapes(paths, colors, false);
+    }
+
+    private int toDeviceX(double x) {
+        return leftMargin + (int) round((x - contourMinX) / (contourMaxX - contourMinX) * contourWidth);
+    }
+
+    private int toDeviceY(double y) {
+        return bottomMargin + (int) round((y - contourMinY) / (contourMaxY - contourMinY) * contourHeight);
+    }
+
+    public ContourPlotRenderer addCircularMargin() {
+        add(g2d -> {
+            g2d.setColor(Color.WHITE);
+            int lineWidth = 32;
+            g2d.setStroke(new BasicStroke((float) 2 * lineWidth));
+            g2d.drawOval(leftMargin - lineWidth, bottomMargin - lineWidth,
+                    contourWidth + 2 * lineWidth, contourHeight + 2 * lineWidth);
+        });
+        return this;
+    }
+
+    public ContourPlotRenderer addCircularMarginSST() {
+        add(g2d -> {
+            g2d.setColor(Color.WHITE);
+            int lineWidth = 32;
+            g2d.setStroke(new BasicStroke((float) 2 * lineWidth));
+            g2d.drawOval(leftMargin - contourWidth - lineWidth,
+                bottomMargin - contourHeight - lineWidth,
+                2 * contourWidth + 2 * lineWidth, 2 * contourHeight + 2 * lineWidth);
+        });
+        return this;
+    }
+
+    public ContourPlotRenderer addDashedCircumference() {
+        add(g2d -> {
+            g2d.setColor(Color.BLACK);
+            g2d.setStroke(new BasicStroke(1.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 12.5f, new float[]{5.0f, 7.5f}, 0.0f));
+            g2d.drawOval(leftMargin, bottomMargin, contourWidth, contourHeight);
+        });
+        return this;
+    }
+
+    public ContourPlotRenderer addHexagonalSST() {
+        add(g2d -> {
+            g2d.setColor(Color.BLACK);
+            g2d.setStroke(new BasicStroke(2f));
+            g2d.drawLine(leftMargin, bottomMargin, leftMargin + contourWidth, bottomMargin);
+            g2d.drawLine(leftMargin, bottomMargin,
+                leftMargin + (int) (contourWidth * cos(PI / 6)),
+                bottomMargin + (int) (contourHeight * sin(PI / 6)));
+            g2d.drawArc(leftMargin - contourWidth, bottomMargin - contourHeight,
+                2 * contourWidth, 2 * contourHeight, 0, -30);
+        });
+        return this;
+    }
+
+    //TODO copied from gbtoolbox-legacy
+    public ContourPlotRenderer addCubicSST() {
+        add(g2d -> {
+            int numberOfSamplingPoints = 32;
+
+            g2d.setColor(Color.BLACK);
+            g2d.setStroke(new BasicStroke(2f));
+
+            Line2D axis1 = new Line2D.Double(leftMargin, bottomMargin,
+                leftMargin + contourWidth, bottomMargin);
+            Line2D axis2 = new Line2D.Double(leftMargin, bottomMargin,
+                leftMargin +  0.883663 * contourWidth, bottomMargin + 0.883663 * contourHeight);
+
+            g2d.draw(axis1);
+            g2d.draw(axis2);
+
+            double[] t = new double[numberOfSamplingPoints + 1];
+            double dt = 0.25 * PI / numberOfSamplingPoints;
+            rangeClosed(0, numberOfSamplingPoints).forEach(i -> t[i] = -0.25 * PI + i * dt);
+
+            Point2D[] points = new Point2D[numberOfSamplingPoints + 1];
+            rangeClosed(0, numberOfSamplingPoints).forEach(i ->
+                points[i] = new Point2D.Double(
+                    leftMargin + (contourWidth / 0.41421356) * tan(atan(1 / cos(t[i])) * 0.5) * cos(t[i]),
+                    bottomMargin - (contourHeight / 0.41421356) * tan(atan(1 / cos(t[i])) * 0.5) * sin(t[i])
+                )
+            );
+            drawCurve(g2d, points);
+        });
+        return this;
+    }
+
+    public ContourPlotRenderer cropHexagonalSST() {
+        add(g2d -> {
+            g2d.setColor(Color.WHITE);
+            Polygon upperArea = new Polygon();
+            upperArea.addPoint(leftMargin, bottomMargin);
+            upperArea.addPoint(leftMargin + (int)(contourWidth* cos(PI / 6)),
+                bottomMargin + (int)(contourHeight* sin(PI / 6)));
+            upperArea.addPoint(leftMargin + contourWidth, bottomMargin + contourHeight);
+            upperArea.addPoint(leftMargin, bottomMargin + contourHeight);
+            g2d.fillPolygon(upperArea);
+        });
+        return this;
+    }
+
+    public ContourPlotRenderer cropCubicSST() {
+        add(g2d -> {
+            g2d.setColor(Color.WHITE);
+            Polygon upperTriangle = new Polygon();
+            upperTriangle.addPoint(leftMargin, bottomMargin);
+            upperTriangle.addPoint(leftMargin + contourWidth, bottomMargin + contourHeight);
+            upperTriangle.addPoint(leftMargin, bottomMargin + contourHeight);
+            g2d.fillPolygon(upperTriangle);
+            Polygon rhsArea = new Polygon();
+            rhsArea.addPoint(leftMargin + contourWidth + 1, bottomMargin + contourHeight);
+            int numberOfSamplingPoints = 32;
+            double dt = 0.25 * PI / numberOfSamplingPoints;
+            rangeClosed(0, numberOfSamplingPoints).forEach(i -> {
+                double ti = -0.25 * PI + i * dt;
+                rhsArea.addPoint(
+                    leftMargin + (int) round((contourWidth / 0.41421356) * tan(atan(1 / cos(ti)) * 0.5) * cos(ti)),
+                    bottomMargin - (int) round((contourHeight / 0.41421356) * tan(atan(1 / cos(ti)) * 0.5) * sin(ti))
+                );
+            });
+            rhsArea.addPoint(leftMargin + contourWidth + 1, bottomMargin);
+
+            g2d.fillPolygon(rhsArea);
+        });
+        return this;
+    }
+
+    //TODO copied from gbtoolbox-legacy
+    public ContourPlotRenderer addHexagonalAxes(Color color, BasicStroke stroke) {
+        add(g2d -> {
+            Line2D axis1 = new Line2D.Double(leftMargin, bottomMargin + contourHeight / 2, leftMargin + contourWidth, bottomMargin + contourHeight / 2);
+            Line2D axis2 = new Line2D.Double(leftMargin + contourWidth / 2, bottomMargin, leftMargin + contourWidth / 2, bottomMargin + contourHeight);
+
+            double radius = contourHeight / 2.; //assumes height=width
+            Line2D axis3 = new Line2D.Double(leftMargin + radius + radius * cos(PI / 6),
+                bottomMargin + radius + radius * sin(PI / 6),
+                leftMargin + radius + radius * cos(PI + PI / 6),
+                bottomMargin + radius + radius * sin(PI + PI / 6));
+
+            Line2D axis4 = new Line2D.Double(leftMargin + radius + radius* cos(2 * PI / 6),
+                bottomMargin + radius + radius * sin(2 * PI / 6),
+                leftMargin + radius + radius * cos(PI + 2 * PI / 6),
+                bottomMargin + radius + radius * sin(PI + 2 * PI / 6));
+
+            Line2D axis5 = new Line2D.Double(leftMargin + radius + radius* cos(5 * PI / 6),
+                bottomMargin + radius + radius * sin(5 * PI / 6),
+                leftMargin + radius + radius * cos(PI + 5 * PI / 6),
+                bottomMargin + radius + radius * sin(PI + 5 * PI / 6));
+
+            Line2D axis6 = new Line2D.Double(leftMargin + radius + radius* cos(4 * PI / 6),
+                bottomMargin + radius + radius * sin(4 * PI / 6),
+                leftMargin + radius + radius * cos(PI + 4 * PI / 6),
+                bottomMargin + radius + radius * sin(PI + 4 * PI / 6));
+
+            g2d.setColor(color);
+            g2d.setStroke(stroke);
+
+            g2d.draw(axis1);
+            g2d.draw(axis2);
+            g2d.draw(axis3);
+            g2d.draw(axis4);
+            g2d.draw(axis5);
+            g2d.draw(axis6);
+        });
+        return this;
+    }
+
+    //TODO comes from gbtoolbox-legacy
+    public ContourPlotRenderer addCubicAxes(Color color, BasicStroke stroke) {
+        add(g2d -> {
+
+            int numberOfSamplingPoints = 64;
+
+            Ellipse2D circle = new Ellipse2D.Double(leftMargin, bottomMargin, contourWidth, contourHeight);
+
+            g2d.setColor(color);
+            g2d.setStroke(stroke);
+            g2d.draw(circle);
+
+            double radius = contourHeight / 2.;
+            Line2D axis1 = new Line2D.Double(leftMargin, bottomMargin + radius, leftMargin + 2 * radius, bottomMargin + radius);
+            Line2D axis2 = new Line2D.Double(leftMargin + radius, bottomMargin, leftMargin + radius, bottomMargin + 2 * radius);
+
+            Line2D axis3 = new Line2D.Double(leftMargin + (int) round(radius * (1d - 0.5 * sqrt(2))),
+                bottomMargin + (int) round(radius * (1 - 0.5 * sqrt(2))),
+                leftMargin + radius + (int) round(radius * 0.5 * sqrt(2)),
+                bottomMargin + radius + (int) round(radius * 0.5 * sqrt(2)));
+
+            Line2D axis4 = new Line2D.Double(leftMargin + (int) round(radius * (1d - 0.5 * sqrt(2))),
+                bottomMargin + radius + (int) round(radius * 0.5 * sqrt(2)),
+                leftMargin + radius + (int) round(radius * 0.5 * sqrt(2)),
+                bottomMargin + (int) round(radius * (1 - 0.5 * sqrt(2))));
+
+            g2d.draw(axis1);
+            g2d.draw(axis2);
+            g2d.draw(axis3);
+            g2d.draw(axis4);
+
+            final double[] t = new double[numberOfSamplingPoints + 1];
+
+            final double dt = PI / numberOfSamplingPoints;
+            for(int i = 0; i <= numberOfSamplingPoints; ++i) t[i] = -0.5 * PI + i * dt;
+
+            Point2D[] pts = new Point2D[numberOfSamplingPoints + 1];
+            for (int i = 0; i <= numberOfSamplingPoints; ++i) {
+                pts[i] = new Point2D.Double(leftMargin + radius * (1 + (tan(atan(1 / cos(t[i])) * 0.5) * cos(t[i]))),
+                    bottomMargin + radius * (1 + (tan(atan(1 / cos(t[i])) * 0.5) * sin(t[i]))));
+            }
+            drawCurve(g2d, pts);
+
+            pts = new Point2D[numberOfSamplingPoints + 1];
+            for (int i = 0; i <= numberOfSamplingPoints; ++i) {
+                pts[i] = new Point2D.Double(leftMargin + radius * (1 - (tan(atan(1 / cos(t[i])) * 0.5) * cos(t[i]))),
+                    bottomMargin + radius * (1 + (tan(atan(1 / cos(t[i])) * 0.5) * sin(t[i]))));
+            }
+            drawCurve(g2d, pts);
+
+            pts = new Point2D[numberOfSamplingPoints + 1];
+            for (int i = 0; i <= numberOfSamplingPoints; ++i) {
+                pts[i] = new Point2D.Double(leftMargin + radius * (1 + (tan(atan(1 / cos(t[i])) * 0.5) * sin(t[i]))),
+                    bottomMargin + radius * (1 + (tan(atan(1 / cos(t[i])) * 0.5) * cos(t[i]))));
+            }
+            drawCurve(g2d, pts);
+
+            pts = new Point2D[numberOfSamplingPoints + 1];
+            for (int i = 0; i <= numberOfSamplingPoints; ++i) {
+                pts[i] = new Point2D.Double(leftMargin + radius * (1 + (tan(atan(1 / cos(t[i])) * 0.5) * sin(t[i]))),
+                    bottomMargin + radius * (1 - (tan(atan(1 / cos(t[i])) * 0.5) * cos(t[i]))));
+            }
+            drawCurve(g2d, pts);
+        });
+        return this;
+    }
+
+    public ContourPlotRenderer addSpots(List<Point2D> coordinates, Color color, int size) {
+        add(g2d -> {
+            g2d.setColor(color);
+            for (Point2D coords : coordinates) {
+                g2d.fillOval(
+                        leftMargin + (int)(0.5 * contourWidth * (1. + coords.getX()) ) - size / 2,
+                        bottomMargin + (int)(0.5 * contourHeight * (1. + coords.getY())) - size / 2,
+                        size, size);
+            }
+        });
+        return this;
+    }
+
+    public ContourPlotRenderer addSpots(List<Point2D> coordinates, Color color, int size, Stroke stroke) {
+        add(g2d -> {
+            g2d.setColor(color);
+            g2d.setStroke(stroke);
+            for (Point2D coords : coordinates) {
+                g2d.drawOval(
+                        leftMargin + (int)(0.5 * contourWidth * (1. + coords.getX()) ) - size / 2,
+                        bottomMargin + (int)(0.5 * contourHeight * (1. + coords.getY())) - size / 2,
+                        size, size);
+            }
+        });
+        return this;
+    }
+
+    public ContourPlotRenderer addZones(List<List<Point2D>> zones, Color color, Stroke stroke) {
+        add(g2d -> {
+            g2d.setColor(color);
+            g2d.setStroke(stroke);
+            for (List<Point2D> zone : zones) {
+                drawCurve(g2d, zone.stream().map(p -> new Point2D.Double(
+                        leftMargin + (int)(0.5 * contourWidth * (1. + p.getX())),
+                        bottomMargin + (int)(0.5 * contourHeight * (1. + p.getY()))
+                )).toArray(Point2D[]::new));
+            }
+        });
+        return this;
+    }
+
+    public ContourPlotRenderer addSymmetryAxes(List<SymmetryAxis> symmetryAxes, int size, Color color) {
+        final double EPSILON = 0.01;
+        add(g2d -> {
+            for (SymmetryAxis axis1 : symmetryAxes) {
+                double theta = FastMath.atan2(axis1.getAxis().y(), axis1.getAxis().x());
+                double phi = SaferMath.acos(axis1.getAxis().z());
+                double r = FastMath.tan(0.5 * phi);
+                int rX = leftMargin + (int)(0.5 * contourWidth * (1. + r * FastMath.cos(theta)));
+                int rY = bottomMargin + (int)(0.5 * contourHeight * (1. + r * FastMath.sin(theta)));
+
+                g2d.setColor(color);
+                if (axis1.getMultiplicity() == 2) {
+                    boolean isOverlap = false;
+                    for (SymmetryAxis axis2 : symmetryAxes)
+                        if (Math.abs(axis2.getAxis().dot(axis1.getAxis()) - 1.) < EPSILON
+                                && axis2.getMultiplicity() > axis1.getMultiplicity()) {
+                            isOverlap = true;
+                            break;
+                        }
+                    if (!isOverlap) {
+                        g2d.fillOval(rX - size / 4, rY - size / 2, size / 2, size);
+                    }
+
+                } else if(axis1.getMultiplicity() == 3) {
+                    boolean isOverlap = false;
+                    for (SymmetryAxis axis2 : symmetryAxes)
+                        if (Math.abs(axis2.getAxis().dot(axis1.getAxis()) - 1.) < EPSILON
+                                && axis2.getMultiplicity() > axis1.getMultiplicity()) {
+                            isOverlap = true;
+                            break;
+                        }
+                    double radius = 0.625 * size;
+                    if (!isOverlap) {
+                        g2d.fillPolygon(
+                                new int[]{rX - (int)(radius * cos(PI / 2. + PI / 3.)),
+                                        rX - (int)(radius * cos(PI / 2. + PI )),
+                                        rX - (int)(radius * cos(PI / 2. + 5.* PI / 3.))
+
+                                },
+                                new int[]{rY - (int)(radius * sin(PI / 2. + PI / 3.)),
+                                        rY - (int)(radius * sin(PI / 2. + PI)),
+                                        rY - (int)(radius * sin(PI / 2. + 5.* PI / 3.))},
+                                3);
+                    }
+
+                } else if(axis1.getMultiplicity() == 4) {
+                    boolean isOverlap = false;
+                    for (SymmetryAxis axis2 : symmetryAxes)
+                        if (Math.abs(axis2.getAxis().dot(axis1.getAxis()) - 1.) < EPSILON
+                                && axis2.getMultiplicity() > axis1.getMultiplicity()) {
+                            isOverlap = true;
+                            break;
+                        }
+                    if (!isOverlap) {
+                        g2d.fillRect(rX - (int)(11./32.*size), rY - - (int)(11./32.*size), (int)(22./32.*size), (int)(22./32.*size));
+                    }
+
+                } else if(axis1.getMultiplicity() == 6) {
+                    double rad = 24./32.*size;
+                    boolean isOverlap = false;
+                    for (SymmetryAxis elem2 : symmetryAxes)
+                        if(Math.abs(elem2.getAxis().dot(axis1.getAxis()) - 1.) < 0.01
+                                && elem2.getMultiplicity() > axis1.getMultiplicity()) {
+                            isOverlap = true;
+                            break;
+                        }
+                    if (!isOverlap)
+                        g2d.fillPolygon(
+                                new int[]{rX - (int)(rad* cos(0.)),
+                                        rX - (int)(rad* cos(PI / 3.)),
+                                        rX - (int)(rad* cos(PI * 2. / 3.)),
+                                        rX - (int)(rad* cos(PI )),
+                                        rX - (int)(rad* cos(PI * 4. / 3.)),
+                                        rX - (int)(rad* cos(PI * 5. / 3.)),
+                                },
+                                new int[]{rY - (int)(rad * sin(0.)),
+                                        rY - (int)(rad* sin(PI / 3.)),
+                                        rY - (int)(rad* sin(PI * 2. / 3.)),
+                                        rY - (int)(rad* sin(PI )),
+                                        rY - (int)(rad* sin(PI * 4. / 3.)),
+                                        rY - (int)(rad* sin(PI * 5. / 3.))},
+                                6);
+
+                } else if(axis1.getMultiplicity() == 8) {
+                    double rad = 25./32.*size;
+                    boolean isOverlap = false;
+                    for(SymmetryAxis axis2 : symmetryAxes)
+                        if(Math.abs(axis2.getAxis().dot(axis1.getAxis()) - 1d) < EPSILON
+                                && axis2.getMultiplicity() > axis1.getMultiplicity()) {
+                            isOverlap = true;
+                            break;
+                        }
+                    if (!isOverlap)
+                        g2d.fillPolygon(
+                                new int[]{(int)(rX - rad* cos(0d)),
+                                        (int)(rX - rad* cos(PI / 4d)),
+                                        (int)(rX - rad* cos(PI / 4d * 2d)),
+                                        (int)(rX - rad* cos(PI / 4d * 3d)),
+                                        (int)(rX - rad* cos(PI / 4d * 4d)),
+                                        (int)(rX - rad* cos(PI / 4d * 5d)),
+                                        (int)(rX - rad* cos(PI / 4d * 6d)),
+                                        (int)(rX - rad* cos(PI / 4d * 7d))
+
+                                },
+                                new int[]{(int)(rY - rad* sin(0d)),
+                                        (int)(rY - rad* sin(PI / 4d )),
+                                        (int)(rY - rad* sin(PI / 4d * 2d)),
+                                        (int)(rY - rad* sin(PI / 4d * 3d)),
+                                        (int)(rY - rad* sin(PI / 4d * 4d)),
+                                        (int)(rY - rad* sin(PI / 4d * 5d)),
+                                        (int)(rY - rad* sin(PI / 4d * 6d)),
+                                        (int)(rY - rad* sin(PI / 4d * 7d)),
+                                }, 8);
+
+
+                } else if(axis1.getMultiplicity() == 12) {
+
+                    boolean isOverlap = false;
+                    for (SymmetryAxis axis2 : symmetryAxes)
+                        if (Math.abs(axis2.getAxis().dot(axis1.getAxis()) - 1d) < EPSILON
+                                && axis2.getMultiplicity() > axis1.getMultiplicity()) {
+                            isOverlap = true;
+                            break;
+                        }
+
+                    double rad = 42./32.*size;
+                    if (!isOverlap)
+                        g2d.fillPolygon(
+                                new int[]{(int)(rX - rad* cos(0d)),
+                                        (int)(rX - rad* cos(PI / 6d)),
+                                        (int)(rX - rad* cos(PI * 2d / 6d)),
+                                        (int)(rX - rad* cos(PI * 3d / 6d)),
+                                        (int)(rX - rad* cos(PI * 4d / 6d)),
+                                        (int)(rX - rad* cos(PI * 5d / 6d)),
+                                        (int)(rX - rad* cos(PI )),
+                                        (int)(rX - rad* cos(PI * 7d / 6d)),
+                                        (int)(rX - rad* cos(PI * 8d / 6d)),
+                                        (int)(rX - rad* cos(PI * 9d / 6d)),
+                                        (int)(rX - rad* cos(PI * 10d / 6d)),
+                                        (int)(rX - rad* cos(PI * 11d / 6d)),
+                                },
+                                new int[]{(int)(rY - rad* sin(0.)),
+                                        (int)(rY - rad* sin(PI / 6.)),
+                                        (int)(rY - rad* sin(PI * 2. / 6.)),
+                                        (int)(rY - rad* sin(PI * 3. / 6.)),
+                                        (int)(rY - rad* sin(PI * 4. / 6.)),
+                                        (int)(rY - rad* sin(PI * 5. / 6.)),
+                                        (int)(rY - rad* sin(PI )),
+                                        (int)(rY - rad* sin(PI * 7. / 6.)),
+                                        (int)(rY - rad* sin(PI * 8. / 6.)),
+                                        (int)(rY - rad* sin(PI * 9. / 6.)),
+                                        (int)(rY - rad* sin(PI * 10. / 6.)),
+                                        (int)(rY - rad* sin(PI * 11. / 6.))
+                                }, 12);
+
+
+                } else {
+                    log.warn("Unsupported {}-fold symmetry axis won't be displayed", axis1.getMultiplicity());
+                }
+            }
+
+            g2d.setColor(color);
+            g2d.fillOval(leftMargin + contourWidth / 2 - size / 4, bottomMargin + contourHeight / 2 - size / 4, size / 2, size / 2);
+            g2d.setColor(Color.white);
+            g2d.fillOval(leftMargin + contourWidth / 2 - size / 4 + 3, bottomMargin + contourHeight / 2 - size / 4 + 3, size / 2 - 6, size / 2 - 6);
+        });
+        return this;
+    }
+}
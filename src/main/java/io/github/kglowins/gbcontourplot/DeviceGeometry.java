@@ -0,0 +1,147 @@
+package io.github.kglowins.gbcontourplot;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.Path2D;
+import java.util.function.Supplier;
+
+// Plot geometry compiled into device coordinates once per layout of a ContourPlot, so that every later paint
+// or export only replays primitive buffers. Consecutive items of the same colour share one setColor.
+final class DeviceGeometry {
+
+    private DeviceGeometry() {
+    }
+
+    // recompiles when the layout version of the plot (margins, contour size) moves on
+    static final class Cache<T> {
+        private final Supplier<T> compiler;
+        private T compiled;
+        private int layoutVersion = -1;
+
+        Cache(Supplier<T> compiler) {
+            this.compiler = compiler;
+        }
+
+        synchronized T get(int layoutVersion) {
+            if (this.layoutVersion != layoutVersion) {
+                compiled = compiler.get();
+                this.layoutVersion = layoutVersion;
+            }
+            return compiled;
+        }
+    }
+
+    // polygons batched into one path per colour run, polygon p has the points xs[p], ys[p]; the polygons of a
+    // band do not overlap, so a single non-zero fill covers each of them exactly once and leaves no seams
+    static final class Polygons {
+        private final Path2D.Float[] paths;
+        private final Color[] colors;
+
+        Polygons(int[][] xs, int[][] ys, Color[] polygonColors) {
+            ColorRuns colorRuns = new ColorRuns(polygonColors);
+            paths = new Path2D.Float[colorRuns.size()];
+            colors = new Color[colorRuns.size()];
+            for (int run = 0; run < colorRuns.size(); run++) {
+                Path2D.Float path = new Path2D.Float(Path2D.WIND_NON_ZERO);
+                for (int polygon = colorRuns.start(run); polygon < colorRuns.start(run + 1); polygon++) {
+                    if (xs[polygon].length == 0) {
+                        continue;
+                    }
+                    path.moveTo(xs[polygon][0], ys[polygon][0]);
+                    for (int point = 1; point < xs[polygon].length; point++) {
+                        path.lineTo(xs[polygon][point], ys[polygon][point]);
+                    }
+                    path.closePath();
+                }
+                paths[run] = path;
+                colors[run] = colorRuns.color(run);
+            }
+        }
+
+        void draw(Graphics2D g2d, boolean outlined) {
+            g2d.setStroke(new BasicStroke());
+            for (int run = 0; run < paths.length; run++) {
+                g2d.setColor(colors[run]);
+                if (outlined) {
+                    g2d.draw(paths[run]);
+                }
+                g2d.fill(paths[run]);
+            }
+        }
+    }
+
+    // segment s runs from (ends[4 * s], ends[4 * s + 1]) to (ends[4 * s + 2], ends[4 * s + 3])
+    static final class Segments {
+        private final int[] ends;
+
+        Segments(int[] ends) {
+            this.ends = ends;
+        }
+
+        void draw(Graphics2D g2d) {
+            for (int end = 0; end < ends.length; end += 4) {
+                g2d.drawLine(ends[end], ends[end + 1], ends[end + 2], ends[end + 3]);
+            }
+        }
+    }
+
+    // shapes drawn and, if filled, filled
+    static final class Shapes {
+        private final Shape[] shapes;
+        private final ColorRuns colorRuns;
+        private final boolean filled;
+
+        Shapes(Shape[] shapes, Color[] colors, boolean filled) {
+            this.shapes = shapes;
+            colorRuns = new ColorRuns(colors);
+            this.filled = filled;
+        }
+
+        void draw(Graphics2D g2d) {
+            for (int run = 0; run < colorRuns.size(); run++) {
+                g2d.setColor(colorRuns.color(run));
+                for (int shape = colorRuns.start(run); shape < colorRuns.start(run + 1); shape++) {
+                    g2d.draw(shapes[shape]);
+                    if (filled) {
+                        g2d.fill(shapes[shape]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class ColorRuns {
+        private final int[] starts;
+        private final Color[] colors;
+        private final int size;
+
+        private ColorRuns(Color[] itemColors) {
+            starts = new int[itemColors.length + 1];
+            colors = new Color[itemColors.length];
+            int runs = 0;
+            for (int item = 0; item < itemColors.length; item++) {
+                if (item == 0 || !itemColors[item].equals(itemColors[item - 1])) {
+                    starts[runs] = item;
+                    colors[runs] = itemColors[item];
+                    runs++;
+                }
+            }
+            starts[runs] = itemColors.length;
+            size = runs;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int start(int run) {
+            return starts[run];
+        }
+
+        private Color color(int run) {
+            return colors[run];
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package io.github.kglowins.gbcontourplot;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+
+// An RGB image painted tile by tile: the painter draws the whole image in image coordinates and runs once per
+// tile of tileSize x tileSize pixels, translated to it, so it has to be thread-safe. The tiles of a
+// band of tileSize rows are painted in parallel when the band is first asked for and only the last band is kept,
+// so an encoder that reads the image row by row (like the PNG one) never holds more than one band.
+final class TiledRaster implements RenderedImage {
+
+    private static final ColorModel RGB = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).getColorModel();
+
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final ExecutorService executor;
+    private final Consumer<Graphics2D> painter;
+
+    private int bandIndex = -1;
+    private Raster band;
+
+    TiledRaster(int width, int height, int tileSize, ExecutorService executor, Consumer<Graphics2D> painter) {
+        if (tileSize < 1) {
+            throw new IllegalArgumentException("tileSize < 1");
+        }
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.executor = executor;
+        this.painter = painter;
+    }
+
+    // every band painted, in parallel tile by tile, and copied into one image
+    BufferedImage toBufferedImage() {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        range(0, getNumYTiles()).forEach(band -> image.getRaster().setRect(paintBand(band)));
+        return image;
+    }
+
+    private synchronized Raster band(int index) {
+        if (bandIndex != index) {
+            band = paintBand(index);
+            bandIndex = index;
+        }
+        return band;
+    }
+
+    private Raster paintBand(int index) {
+        int bandY = index * tileSize;
+        int bandHeight = Math.min(tileSize, height - bandY);
+        WritableRaster raster = RGB.createCompatibleWritableRaster(width, bandHeight)
+            .createWritableTranslatedChild(0, bandY);
+        List<Callable<Raster>> tiles = range(0, divideRoundingUp(width, tileSize))
+            .mapToObj(tile -> (Callable<Raster>) () -> paintTile(tile * tileSize, bandY,
+                Math.min(tileSize, width - tile * tileSize), bandHeight))
+            .collect(toList());
+        try {
+            for (Future<Raster> tile : executor.invokeAll(tiles)) {
+                raster.setRect(tile.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while painting tiles", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to paint a tile", e.getCause());
+        }
+        return raster;
+    }
+
+    private Raster paintTile(int tileX, int tileY, int tileWidth, int tileHeight) {
+        BufferedImage tile = new BufferedImage(tileWidth, tileHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = tile.createGraphics();
+        // the bounds of the tile clip it; a user clip would make painters that clip to shapes intersect areas
+        // and so move their edges by a pixel now and then
+        g2d.translate(-tileX, -tileY);
+        painter.accept(g2d);
+        g2d.dispose();
+        return tile.getRaster().createTranslatedChild(tileX, tileY);
+    }
+
+    private static int divideRoundingUp(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    // the tiles of the RenderedImage are the bands: the full width and tileSize rows
+
+    @Override
+    public Vector<RenderedImage> getSources() {
+        return null;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return Image.UndefinedProperty;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return null;
+    }
+
+    @Override
+    public ColorModel getColorModel() {
+        return RGB;
+    }
+
+    @Override
+    public SampleModel getSampleModel() {
+        return RGB.createCompatibleSampleModel(width, tileSize);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getMinX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinY() {
+        return 0;
+    }
+
+    @Override
+    public int getNumXTiles() {
+        return 1;
+    }
+
+    @Override
+    public int getNumYTiles() {
+        return divideRoundingUp(height, tileSize);
+    }
+
+    @Override
+    public int getMinTileX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinTileY() {
+        return 0;
+    }
+
+    @Override
+    public int getTileWidth() {
+        return width;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return tileSize;
+    }
+
+    @Override
+    public int getTileGridXOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getTileGridYOffset() {
+        return 0;
+    }
+
+    @Override
+    public Raster getTile(int tileX, int tileY) {
+        return band(tileY);
+    }
+
+    @Override
+    public Raster getData() {
+        return getData(new Rectangle(0, 0, width, height));
+    }
+
+    @Override
+    public Raster getData(Rectangle rect) {
+        return copyData(RGB.createCompatibleWritableRaster(rect.width, rect.height)
+            .createWritableTranslatedChild(rect.x, rect.y));
+    }
+
+    @Override
+    public WritableRaster copyData(WritableRaster raster) {
+        WritableRaster target = nonNull(raster) ? raster : RGB.createCompatibleWritableRaster(width, height);
+        Rectangle bounds = target.getBounds().intersection(new Rectangle(0, 0, width, height));
+        if (bounds.isEmpty()) {
+            return target;
+        }
+        for (int index = bounds.y / tileSize; index <= (bounds.y + bounds.height - 1) / tileSize; index++) {
+            Raster source = band(index);
+            Rectangle overlap = bounds.intersection(source.getBounds());
+            target.setRect(source.createChild(overlap.x, overlap.y, overlap.width, overlap.height,
+                overlap.x, overlap.y, null));
+        }
+        return target;
+    }
+}
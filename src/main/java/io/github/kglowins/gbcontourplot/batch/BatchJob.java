@@ -0,0 +1,159 @@
+package io.github.kglowins.gbcontourplot.batch;
+
+import io.github.kglowins.gbcontourplot.colormappers.ColorMapTable;
+import io.github.kglowins.gbcontourplot.colormappers.ColorMapper;
+import io.github.kglowins.gbcontourplot.colormappers.JetColorMapper;
+import io.github.kglowins.gbcontourplot.colormappers.TableBasedColorMapper;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+import static java.util.stream.Collectors.toList;
+
+// One map of a batch: a .dist file (x, y in columns 0, 1 and f in column 4) interpolated on a grid, contoured
+// and written as a raster image whose format follows the extension of output
+@Accessors(chain = true, fluent = true)
+@Getter
+@Setter
+public class BatchJob {
+
+    private static final String JET = "JET";
+
+    // required
+    private final Path input;
+    private final Path output;
+
+    // optional
+    private double xMin = -1;
+    private double xMax = 1;
+    private double yMin = -1;
+    private double yMax = 1;
+    private int xCells = 100;
+    private int yCells = 100;
+    private int maxNearest = 6;
+    // null for numberOfIsoLines levels spread over the values
+    private List<Double> isoLevels;
+    private int numberOfIsoLines = 8;
+    // null for the range of the values
+    private Double rangeMin;
+    private Double rangeMax;
+    // a ColorMapTable or JET
+    private String colorMap = ColorMapTable.DARK_RAINBOW.name();
+    private PlotRegion region = PlotRegion.NONE;
+    private int size = 400;
+
+    public BatchJob(Path input, Path output) {
+        if (isNull(input) || isNull(output)) {
+            throw new IllegalArgumentException("input and output are required");
+        }
+        this.input = input;
+        this.output = output;
+    }
+
+    public BatchJob grid(double xMin, double xMax, double yMin, double yMax, int xCells, int yCells) {
+        this.xMin = xMin;
+        this.xMax = xMax;
+        this.yMin = yMin;
+        this.yMax = yMax;
+        this.xCells = xCells;
+        this.yCells = yCells;
+        return this;
+    }
+
+    public BatchJob range(double rangeMin, double rangeMax) {
+        this.rangeMin = rangeMin;
+        this.rangeMax = rangeMax;
+        return this;
+    }
+
+    ColorMapper colorMapper() {
+        return JET.equals(colorMap) ? new JetColorMapper() : new TableBasedColorMapper(colorMap);
+    }
+
+    String format() {
+        String fileName = output.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "png" : fileName.substring(dot + 1).toLowerCase();
+    }
+
+    // A line of key=value words, e.g. "input=a.dist output=a.png grid=-1,1,-1,1,100,100 levels=8 region=UNIT_CIRCLE";
+    // levels takes either a number of levels or the levels themselves, relative paths are resolved against directory
+    public static BatchJob parse(String line, Path directory) {
+        Path input = null;
+        Path output = null;
+        String[][] options = Arrays.stream(line.trim().split("\\s+"))
+            .map(word -> word.split("=", 2))
+            .toArray(String[][]::new);
+        for (String[] option : options) {
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Expected key=value, got " + option[0]);
+            }
+            if (option[0].equals("input")) {
+                input = directory.resolve(option[1]);
+            } else if (option[0].equals("output")) {
+                output = directory.resolve(option[1]);
+            }
+        }
+        BatchJob job = new BatchJob(input, output);
+        for (String[] option : options) {
+            job.parseOption(option[0], option[1]);
+        }
+        return job;
+    }
+
+    private void parseOption(String key, String value) {
+        double[] numbers;
+        switch (key) {
+            case "input":
+            case "output":
+                break;
+            case "grid":
+                numbers = parseNumbers(key, value, 6);
+                grid(numbers[0], numbers[1], numbers[2], numbers[3], (int) numbers[4], (int) numbers[5]);
+                break;
+            case "nearest":
+                maxNearest = Integer.parseInt(value);
+                break;
+            case "levels":
+                if (value.matches("\\d+")) {
+                    numberOfIsoLines = Integer.parseInt(value);
+                } else {
+                    isoLevels = Arrays.stream(value.split(",")).map(Double::valueOf).collect(toList());
+                }
+                break;
+            case "range":
+                numbers = parseNumbers(key, value, 2);
+                range(numbers[0], numbers[1]);
+                break;
+            case "colormap":
+                colorMap = value.equals(JET) ? JET : ColorMapTable.valueOf(value).name();
+                break;
+            case "region":
+                region = PlotRegion.valueOf(value);
+                break;
+            case "size":
+                size = Integer.parseInt(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option " + key);
+        }
+    }
+
+    private static double[] parseNumbers(String key, String value, int count) {
+        double[] numbers = Arrays.stream(value.split(",")).mapToDouble(Double::parseDouble).toArray();
+        if (numbers.length != count) {
+            throw new IllegalArgumentException(key + " takes " + count + " numbers");
+        }
+        return numbers;
+    }
+
+    @Override
+    public String toString() {
+        return input + " -> " + output;
+    }
+}
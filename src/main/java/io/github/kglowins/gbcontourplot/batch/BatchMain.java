@@ -0,0 +1,75 @@
+package io.github.kglowins.gbcontourplot.batch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+// Command line front of BatchRenderer, headless:
+//   java -cp gbcontourplot.jar io.github.kglowins.gbcontourplot.batch.BatchMain jobs.txt
+//       [--parallelism n] [--readers n] [--queue n]
+// --parallelism sets the workers of each of the 3 CPU stages and defaults to a third of the cores.
+// jobs.txt holds one BatchJob.parse line per map, blank lines and lines starting with # are skipped.
+// Exits with 1 when a job fails and with 2 on bad arguments.
+public class BatchMain {
+
+    private static final String USAGE =
+        "usage: BatchMain <jobs file> [--parallelism n] [--readers n] [--queue n]";
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length == 0 || args.length % 2 == 0) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        BatchRenderer renderer = new BatchRenderer();
+        List<BatchJob> jobs;
+        try {
+            for (int arg = 1; arg < args.length; arg += 2) {
+                int value = Integer.parseInt(args[arg + 1]);
+                switch (args[arg]) {
+                    case "--parallelism":
+                        renderer.withParallelism(value);
+                        break;
+                    case "--readers":
+                        renderer.withReaders(value);
+                        break;
+                    case "--queue":
+                        renderer.withQueueCapacity(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[arg]);
+                }
+            }
+            jobs = readJobs(Paths.get(args[0]));
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        BatchReport report = renderer.render(jobs);
+        System.out.print(report);
+        System.exit(report.getFailures().isEmpty() ? 0 : 1);
+    }
+
+    static List<BatchJob> readJobs(Path jobsFile) {
+        Path directory = jobsFile.toAbsolutePath().getParent();
+        try (Stream<String> lines = Files.lines(jobsFile)) {
+            return lines
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .map(line -> BatchJob.parse(line, directory))
+                .collect(toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package io.github.kglowins.gbcontourplot.batch;
+
+import io.github.kglowins.gbcontourplot.ContourPlotRenderer;
+import io.github.kglowins.gbcontourplot.colorbar.ColorBarBuilder;
+import io.github.kglowins.gbcontourplot.colormappers.ColorMapper;
+import io.github.kglowins.gbcontourplot.graphics.ColoredRegion;
+import io.github.kglowins.gbcontourplot.graphics.Polyline;
+import io.github.kglowins.gbcontourplot.grid.Function2DValue;
+import io.github.kglowins.gbcontourplot.grid.Grid2DInterpolator;
+import io.github.kglowins.gbcontourplot.grid.Grid2DValues;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static io.github.kglowins.gbcontourplot.colorbar.ColorBarLocation.RIGHT;
+import static io.github.kglowins.gbcontourplot.graphics.RegionCropStyle.EXCLUSIVE;
+import static java.awt.Color.DARK_GRAY;
+import static java.awt.Color.WHITE;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+
+// Renders batch jobs off-screen through a pipeline of stages: read -> interpolate -> contour -> render. Every stage
+// has its own workers and takes its jobs from a bounded queue, so the stages work on different jobs at once and a
+// slow stage holds the ones before it back instead of letting jobs pile up in memory. A failed job is reported and
+// dropped, the others go on.
+@Slf4j
+public class BatchRenderer {
+
+    private static final Work END = new Work(null);
+    private static final String WHITESPACE = "\\s+";
+
+    private static final int CPU_STAGES = 3;
+
+    private int readers = 2;
+    // the CPU stages share the cores by default, the readers mostly wait on the disk
+    private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / CPU_STAGES);
+    private int queueCapacity = 2 * Runtime.getRuntime().availableProcessors();
+
+    public BatchRenderer withReaders(int readers) {
+        if (readers < 1) {
+            throw new IllegalArgumentException("readers < 1");
+        }
+        this.readers = readers;
+        return this;
+    }
+
+    // workers of each of the interpolate, contour and render stages, so 3 * parallelism threads compute at once;
+    // defaults to a third of the cores so that the machine is not oversubscribed
+    public BatchRenderer withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public BatchRenderer withQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity < 1");
+        }
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    public BatchReport render(List<BatchJob> jobs) {
+        long startMillis = Instant.now().toEpochMilli();
+
+        List<Stage> stages = List.of(
+            new Stage("read", readers, BatchRenderer::read),
+            new Stage("interpolate", parallelism, BatchRenderer::interpolate),
+            new Stage("contour", parallelism, BatchRenderer::contour),
+            new Stage("render", parallelism, BatchRenderer::render));
+        List<BlockingQueue<Work>> queues = stages.stream()
+            .map(stage -> new ArrayBlockingQueue<Work>(queueCapacity))
+            .collect(toList());
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+        List<ExecutorService> pools = range(0, stages.size())
+            .mapToObj(index -> stages.get(index).start(queues.get(index),
+                index + 1 < queues.size() ? queues.get(index + 1) : null, failures))
+            .collect(toList());
+        try {
+            for (BatchJob job : jobs) {
+                queues.get(0).put(new Work(job));
+            }
+            queues.get(0).put(END);
+            for (ExecutorService pool : pools) {
+                pool.shutdown();
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            pools.forEach(ExecutorService::shutdownNow);
+            Thread.currentThread().interrupt();
+        }
+
+        BatchReport report = new BatchReport(jobs.size(), stages.stream().map(Stage::report).collect(toList()),
+            new ArrayList<>(failures), Instant.now().toEpochMilli() - startMillis);
+        log.info("Batch report:{}{}", System.lineSeparator(), report);
+        return report;
+    }
+
+    private static void read(Work work) {
+        try (Stream<String> lines = Files.lines(work.job.input())) {
+            work.dataPoints = lines
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .map(line -> {
+                    String[] words = line.split(WHITESPACE);
+                    return Function2DValue.of(Double.parseDouble(words[0]), Double.parseDouble(words[1]),
+                        Double.parseDouble(words[4]));
+                })
+                .collect(toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void interpolate(Work work) {
+        BatchJob job = work.job;
+        work.gridValues = Grid2DInterpolator.from(work.dataPoints).withMaxNearest(job.maxNearest())
+            .interpolateOnGrid(job.xMin(), job.xMax(), job.yMin(), job.yMax(), job.xCells(), job.yCells(),
+                job.region().getPredicate());
+        work.dataPoints = null;
+    }
+
+    private static void contour(Work work) {
+        BatchJob job = work.job;
+        Grid2DValues gridValues = work.gridValues;
+        work.isoLevels = nonNull(job.isoLevels()) ? job.isoLevels()
+            : gridValues.getAutoIsoLevels(job.numberOfIsoLines());
+        work.rangeMin = nonNull(job.rangeMin()) ? job.rangeMin() : gridValues.getFMin();
+        work.rangeMax = nonNull(job.rangeMax()) ? job.rangeMax() : gridValues.getFMax();
+        work.colorMapper = job.colorMapper();
+        work.isoBands = gridValues.toMergedIsoBands(work.isoLevels, work.colorMapper, work.rangeMin, work.rangeMax);
+        work.isoLines = gridValues.toIsoPolylines(work.isoLevels);
+    }
+
+    private static void render(Work work) {
+        BatchJob job = work.job;
+        PlotRegion region = job.region();
+        ContourPlotRenderer renderer = new ContourPlotRenderer(job.xMin(), job.xMax(), job.yMin(), job.yMax())
+            .setBottomMargin(10)
+            .setTopMargin(10)
+            .setLeftMargin(10)
+            .setRightMargin(85)
+            .setContourWidth(job.size())
+            .setContourHeight(job.size())
+            .setBackgroundAndClear(WHITE)
+            .addIsoRegions(work.isoBands, region.getShape());
+        if (isNull(region.getPredicate())) {
+            renderer.addIsoPolylines(work.isoLines, DARK_GRAY, new BasicStroke(0.5f));
+        } else {
+            renderer.addIsoPolylinesIn(work.isoLines, DARK_GRAY, new BasicStroke(0.5f),
+                region.getPredicate(), EXCLUSIVE);
+        }
+        region.getFrame().accept(renderer);
+
+        renderer.add(new ColorBarBuilder()
+            .grid2DValues(work.gridValues)
+            .isoLevels(work.isoLevels)
+            .setRange(work.rangeMin, work.rangeMax)
+            .colorMapper(work.colorMapper)
+            .colorBarLocation(RIGHT)
+            .left(job.size() + 25)
+            .bottom(10)
+            .width(20)
+            .height(job.size())
+            .font(new Font("DejaVu Sans Condensed", Font.PLAIN, 18))
+            .floatingPointTemplate("%.2f")
+            .barLabelSpacing(5)
+            .build());
+
+        try {
+            if (!ImageIO.write(renderer.toImage(), job.format(), job.output().toFile())) {
+                throw new IllegalArgumentException("No image writer for " + job.format());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // a job on its way through the stages, each stage drops what the later ones do not need
+    private static final class Work {
+        private final BatchJob job;
+        private List<Function2DValue> dataPoints;
+        private Grid2DValues gridValues;
+        private List<Double> isoLevels;
+        private double rangeMin;
+        private double rangeMax;
+        private ColorMapper colorMapper;
+        private List<ColoredRegion> isoBands;
+        private List<Polyline> isoLines;
+
+        private Work(BatchJob job) {
+            this.job = job;
+        }
+    }
+
+    private static final class Stage {
+        private final String name;
+        private final int workers;
+        private final Consumer<Work> task;
+        private final AtomicInteger runningWorkers;
+        private final AtomicInteger items = new AtomicInteger();
+        private final LongAdder busyNanos = new LongAdder();
+        private final AtomicLong firstStartNanos = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong lastEndNanos = new AtomicLong(Long.MIN_VALUE);
+
+        private Stage(String name, int workers, Consumer<Work> task) {
+            this.name = name;
+            this.workers = workers;
+            this.task = task;
+            runningWorkers = new AtomicInteger(workers);
+        }
+
+        // out is null for the last stage
+        private ExecutorService start(BlockingQueue<Work> in, BlockingQueue<Work> out, Queue<String> failures) {
+            ExecutorService pool = Executors.newFixedThreadPool(workers);
+            range(0, workers).forEach(worker -> pool.execute(() -> work(in, out, failures)));
+            return pool;
+        }
+
+        private void work(BlockingQueue<Work> in, BlockingQueue<Work> out, Queue<String> failures) {
+            try {
+                for (Work work = in.take(); work != END; work = in.take()) {
+                    if (process(work, failures) && nonNull(out)) {
+                        out.put(work);
+                    }
+                }
+                // for the other workers of the stage
+                in.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (runningWorkers.decrementAndGet() == 0 && nonNull(out)) {
+                    try {
+                        out.put(END);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        private boolean process(Work work, Queue<String> failures) {
+            long startNanos = System.nanoTime();
+            firstStartNanos.accumulateAndGet(startNanos, Math::min);
+            try {
+                task.accept(work);
+                items.incrementAndGet();
+                return true;
+            } catch (RuntimeException e) {
+                log.error("{} failed for {}", name, work.job, e);
+                failures.add(work.job + ": " + name + " failed: " + e);
+                return false;
+            } finally {
+                long endNanos = System.nanoTime();
+                busyNanos.add(endNanos - startNanos);
+                lastEndNanos.accumulateAndGet(endNanos, Math::max);
+            }
+        }
+
+        private StageReport report() {
+            long wallNanos = items.get() > 0 ? lastEndNanos.get() - firstStartNanos.get() : 0;
+            return new StageReport(name, workers, items.get(), TimeUnit.NANOSECONDS.toMillis(busyNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(wallNanos));
+        }
+    }
+}
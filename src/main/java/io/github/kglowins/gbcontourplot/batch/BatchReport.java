@@ -0,0 +1,29 @@
+package io.github.kglowins.gbcontourplot.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@AllArgsConstructor
+public class BatchReport {
+    int jobs;
+    List<StageReport> stages;
+    // "input -> output: message" per failed job
+    List<String> failures;
+    long wallMillis;
+
+    public double jobsPerSecond() {
+        return wallMillis > 0 ? 1000.0 * (jobs - failures.size()) / wallMillis : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format("%d jobs, %d failed, %d millis, %.1f maps/s%n",
+            jobs, failures.size(), wallMillis, jobsPerSecond()));
+        stages.forEach(stage -> report.append(stage).append(System.lineSeparator()));
+        failures.forEach(failure -> report.append("failed: ").append(failure).append(System.lineSeparator()));
+        return report.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.kglowins.gbcontourplot.batch;
+
+import io.github.kglowins.gbcontourplot.ContourPlotRenderer;
+import io.github.kglowins.gbcontourplot.graphics.RegionPredicate;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.awt.Shape;
+import java.util.function.Consumer;
+
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.circle;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.cubicSST;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.hexagonalSST;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.circleRegion;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.cubicSSTRegion;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.hexagonalSSTRegion;
+
+// The plotted region of a batch job: where the grid is interpolated, how the bands are clipped and how the plot
+// is framed, like in the demos
+@AllArgsConstructor
+@Getter
+public enum PlotRegion {
+
+    NONE(null, null, plot -> {
+    }),
+    UNIT_CIRCLE(circleRegion(1), circle(1), plot -> plot.addCircularMargin().addDashedCircumference()),
+    CUBIC_SST(cubicSSTRegion(), cubicSST(), plot -> plot.cropCubicSST().addCubicSST()),
+    HEXAGONAL_SST(hexagonalSSTRegion(), hexagonalSST(), plot -> plot.addCircularMarginSST().cropHexagonalSST()
+        .addHexagonalSST());
+
+    private final RegionPredicate predicate;
+    private final Shape shape;
+    private final Consumer<ContourPlotRenderer> frame;
+}
@@ -0,0 +1,30 @@
+package io.github.kglowins.gbcontourplot.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+// busyMillis adds up the time the workers of the stage spent on its items, wallMillis runs from the start of its
+// first item to the end of its last one
+@Value
+@AllArgsConstructor
+public class StageReport {
+    String stage;
+    int workers;
+    int items;
+    long busyMillis;
+    long wallMillis;
+
+    public double itemsPerSecond() {
+        return wallMillis > 0 ? 1000.0 * items / wallMillis : 0;
+    }
+
+    public double millisPerItem() {
+        return items > 0 ? (double) busyMillis / items : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-12s %3d workers %6d items %9.1f items/s %9.1f ms/item",
+            stage, workers, items, itemsPerSecond(), millisPerItem());
+    }
+}
@@ -5,8 +5,8 @@ import io.github.kglowins.gbcontourplot.colorbar.ColorBarBuilder;
 import io.github.kglowins.gbcontourplot.colormappers.ColorMapTable;
 import io.github.kglowins.gbcontourplot.colormappers.ColorMapper;
 import io.github.kglowins.gbcontourplot.colormappers.TableBasedColorMapper;
-import io.github.kglowins.gbcontourplot.graphics.ColoredPolygon;
-import io.github.kglowins.gbcontourplot.graphics.LineEnds;
+import io.github.kglowins.gbcontourplot.graphics.ColoredRegion;
+import io.github.kglowins.gbcontourplot.graphics.Polyline;
 import io.github.kglowins.gbcontourplot.grid.Function2DValue;
 import io.github.kglowins.gbcontourplot.grid.Grid2DInterpolator;
 import io.github.kglowins.gbcontourplot.grid.Grid2DValues;
@@ -19,10 +19,10 @@ import java.util.List;
 
 import static io.github.kglowins.gbcontourplot.colorbar.ColorBarLocation.BOTTOM;
 import static io.github.kglowins.gbcontourplot.demo.DataPointsUtils.readDataPoints;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.circle;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.circleRegion;
 import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.getDashedStroke;
-import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.insideCircle;
 import static io.github.kglowins.gbcontourplot.graphics.RegionCropStyle.EXCLUSIVE;
-import static io.github.kglowins.gbcontourplot.graphics.RegionCropStyle.INCLUSIVE;
 import static java.awt.Color.BLACK;
 import static java.awt.Color.DARK_GRAY;
 import static java.awt.Color.WHITE;
@@ -49,10 +49,10 @@ public class In100GbcdDemo {
 
         List<Function2DValue> dataPoints = readDataPoints(DATA_POINTS);
         Grid2DInterpolator interpolator = Grid2DInterpolator.from(dataPoints).withMaxNearest(7);
-        Grid2DValues gridValues = interpolator.interpolateOnGrid(-1, 1, -1, 1, 80, 80);
+        Grid2DValues gridValues = interpolator.interpolateOnGrid(-1, 1, -1, 1, 80, 80, circleRegion(1));
         ColorMapper colorMapper = new TableBasedColorMapper(colorMapTable);
-        List<LineEnds> isoLines = gridValues.toIsoLines(numberOfIsoLevels);
-        List<ColoredPolygon> isoBands = gridValues.toIsoBands(numberOfIsoLevels, colorMapper);
+        List<Polyline> isoLines = gridValues.toIsoPolylines(numberOfIsoLevels);
+        List<ColoredRegion> isoBands = gridValues.toMergedIsoBands(numberOfIsoLevels, colorMapper);
 
         ContourPlot contourPlot = new ContourPlot(-1, 1, -1, 1)
             .setBottomMargin(100)
@@ -62,8 +62,8 @@ public class In100GbcdDemo {
             .setContourWidth(size)
             .setContourHeight(size)
             .setBackgroundAndClear(WHITE)
-            .addIsoBands(isoBands, insideCircle(1), INCLUSIVE)
-            .addIsoLines(isoLines, DARK_GRAY, new BasicStroke(0.5f), insideCircle(1), EXCLUSIVE)
+            .addIsoRegions(isoBands, circle(1))
+            .addIsoPolylinesIn(isoLines, DARK_GRAY, new BasicStroke(0.5f), circleRegion(1), EXCLUSIVE)
             .addCircularMargin()
             .addCubicAxes(BLACK, getDashedStroke(1.5f));
 
@@ -5,8 +5,8 @@ import io.github.kglowins.gbcontourplot.colorbar.ColorBarBuilder;
 import io.github.kglowins.gbcontourplot.colormappers.ColorMapTable;
 import io.github.kglowins.gbcontourplot.colormappers.ColorMapper;
 import io.github.kglowins.gbcontourplot.colormappers.TableBasedColorMapper;
-import io.github.kglowins.gbcontourplot.graphics.ColoredPolygon;
-import io.github.kglowins.gbcontourplot.graphics.LineEnds;
+import io.github.kglowins.gbcontourplot.graphics.ColoredRegion;
+import io.github.kglowins.gbcontourplot.graphics.Polyline;
 import io.github.kglowins.gbcontourplot.grid.Function2DValue;
 import io.github.kglowins.gbcontourplot.grid.Grid2DInterpolator;
 import io.github.kglowins.gbcontourplot.grid.Grid2DValues;
@@ -19,10 +19,10 @@ import java.util.List;
 
 import static io.github.kglowins.gbcontourplot.colorbar.ColorBarLocation.BOTTOM;
 import static io.github.kglowins.gbcontourplot.demo.DataPointsUtils.readDataPoints;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.circle;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.circleRegion;
 import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.getDashedStroke;
-import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.insideCircle;
 import static io.github.kglowins.gbcontourplot.graphics.RegionCropStyle.EXCLUSIVE;
-import static io.github.kglowins.gbcontourplot.graphics.RegionCropStyle.INCLUSIVE;
 import static java.awt.Color.BLACK;
 import static java.awt.Color.DARK_GRAY;
 import static java.awt.Color.WHITE;
@@ -37,8 +37,15 @@ public class TiGbcdDemo {
     public static JPanel createPlots() {
         JPanel gridPanel = new JPanel(new GridLayout(1, 2));
 
-        ContourPlot subplot1 = createDistributionPlot();
-        ContourPlot subplot2 = createErrorPlot();
+        // the distribution and its error share the same (x, y) layout
+        List<Function2DValue> distributionPoints = readDataPoints(DISTRIBUTION_DATA);
+        List<Function2DValue> errorPoints = readDataPoints(ERROR_DATA);
+        List<Grid2DValues> channels = Grid2DInterpolator.from(distributionPoints).withMaxNearest(7)
+            .interpolateChannelsOnGrid(-1, 1, -1, 1, 100, 100, circleRegion(1),
+                toValues(distributionPoints), toValues(errorPoints));
+
+        ContourPlot subplot1 = createDistributionPlot(channels.get(0));
+        ContourPlot subplot2 = createErrorPlot(channels.get(1));
 
         gridPanel.add(subplot1);
         gridPanel.add(subplot2);
@@ -46,15 +53,16 @@ public class TiGbcdDemo {
         return gridPanel;
     }
 
-    private static ContourPlot createDistributionPlot() {
+    private static double[] toValues(List<Function2DValue> dataPoints) {
+        return dataPoints.stream().mapToDouble(Function2DValue::f).toArray();
+    }
+
+    private static ContourPlot createDistributionPlot(Grid2DValues gridValues) {
 
-        List<Function2DValue> dataPoints = readDataPoints(DISTRIBUTION_DATA);
-        Grid2DInterpolator interpolator = Grid2DInterpolator.from(dataPoints).withMaxNearest(7);
-        Grid2DValues gridValues = interpolator.interpolateOnGrid(-1, 1, -1, 1, 100, 100);
         ColorMapper colorMapper = new TableBasedColorMapper(ColorMapTable.DARK_RAINBOW.name());
         List<Double> isoLevels = asList(3.2, 4.2, 5.2, 6., 6.5, 7.4);
-        List<LineEnds> isoLines = gridValues.toIsoLines(isoLevels);
-        List<ColoredPolygon> isoBands = gridValues.toIsoBands(isoLevels, colorMapper);
+        List<Polyline> isoLines = gridValues.toIsoPolylines(isoLevels);
+        List<ColoredRegion> isoBands = gridValues.toMergedIsoBands(isoLevels, colorMapper);
 
         ContourPlot contourPlot = new ContourPlot(-1, 1, -1, 1)
             .setBottomMargin(100)
@@ -64,8 +72,8 @@ public class TiGbcdDemo {
             .setContourWidth(500)
             .setContourHeight(500)
             .setBackgroundAndClear(WHITE)
-            .addIsoBands(isoBands, insideCircle(1), INCLUSIVE)
-            .addIsoLines(isoLines, DARK_GRAY, new BasicStroke(0.5f), insideCircle(1), EXCLUSIVE)
+            .addIsoRegions(isoBands, circle(1))
+            .addIsoPolylinesIn(isoLines, DARK_GRAY, new BasicStroke(0.5f), circleRegion(1), EXCLUSIVE)
             .addCircularMargin()
             .addDashedCircumference()
             .addHexagonalAxes(BLACK, getDashedStroke(1.5f));
@@ -92,14 +100,11 @@ public class TiGbcdDemo {
     }
 
 
-    private static ContourPlot createErrorPlot() {
+    private static ContourPlot createErrorPlot(Grid2DValues gridValues) {
 
-        List<Function2DValue> dataPoints = readDataPoints(ERROR_DATA);
-        Grid2DInterpolator interpolator = Grid2DInterpolator.from(dataPoints).withMaxNearest(7);
-        Grid2DValues gridValues = interpolator.interpolateOnGrid(-1, 1, -1, 1, 100, 100);
         ColorMapper colorMapper = new TableBasedColorMapper(ColorMapTable.GRAY_YELLOW.name());
-        List<LineEnds> isoLines = gridValues.toIsoLines(4);
-        List<ColoredPolygon> isoBands = gridValues.toIsoBands(4, colorMapper);
+        List<Polyline> isoLines = gridValues.toIsoPolylines(4);
+        List<ColoredRegion> isoBands = gridValues.toMergedIsoBands(4, colorMapper);
 
         ContourPlot contourPlot = new ContourPlot(-1, 1, -1, 1)
             .setBottomMargin(100)
@@ -109,8 +114,8 @@ public class TiGbcdDemo {
             .setContourWidth(400)
             .setContourHeight(400)
             .setBackgroundAndClear(WHITE)
-            .addIsoBands(isoBands, insideCircle(1), INCLUSIVE)
-            .addIsoLines(isoLines, DARK_GRAY, new BasicStroke(0.5f), insideCircle(1), EXCLUSIVE)
+            .addIsoRegions(isoBands, circle(1))
+            .addIsoPolylinesIn(isoLines, DARK_GRAY, new BasicStroke(0.5f), circleRegion(1), EXCLUSIVE)
             .addCircularMargin()
             .addDashedCircumference()
             .addHexagonalAxes(BLACK, getDashedStroke(1.5f));
@@ -5,8 +5,8 @@ import io.github.kglowins.gbcontourplot.colorbar.ColorBarBuilder;
 import io.github.kglowins.gbcontourplot.colormappers.ColorMapTable;
 import io.github.kglowins.gbcontourplot.colormappers.ColorMapper;
 import io.github.kglowins.gbcontourplot.colormappers.TableBasedColorMapper;
-import io.github.kglowins.gbcontourplot.graphics.ColoredPolygon;
-import io.github.kglowins.gbcontourplot.graphics.LineEnds;
+import io.github.kglowins.gbcontourplot.graphics.ColoredRegion;
+import io.github.kglowins.gbcontourplot.graphics.Polyline;
 import io.github.kglowins.gbcontourplot.grid.Function2DValue;
 import io.github.kglowins.gbcontourplot.grid.Grid2DInterpolator;
 import io.github.kglowins.gbcontourplot.grid.Grid2DValues;
@@ -19,9 +19,9 @@ import java.util.List;
 
 import static io.github.kglowins.gbcontourplot.colorbar.ColorBarLocation.BOTTOM;
 import static io.github.kglowins.gbcontourplot.demo.DataPointsUtils.readDataPoints;
-import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.insideHexagonalSST;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.hexagonalSST;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.hexagonalSSTRegion;
 import static io.github.kglowins.gbcontourplot.graphics.RegionCropStyle.EXCLUSIVE;
-import static io.github.kglowins.gbcontourplot.graphics.RegionCropStyle.INCLUSIVE;
 import static java.awt.Color.DARK_GRAY;
 import static java.awt.Color.WHITE;
 
@@ -47,10 +47,10 @@ public class TiGbpdDemo {
 
         List<Function2DValue> dataPoints = readDataPoints(DATA_POINTS);
         Grid2DInterpolator interpolator = Grid2DInterpolator.from(dataPoints).withMaxNearest(7);
-        Grid2DValues gridValues = interpolator.interpolateOnGrid(0, 1, 0, 1, 50, 50);
+        Grid2DValues gridValues = interpolator.interpolateOnGrid(0, 1, 0, 1, 50, 50, hexagonalSSTRegion());
         ColorMapper colorMapper = new TableBasedColorMapper(colorMapTable);
-        List<LineEnds> isoLines = gridValues.toIsoLines(numberOfIsoLevels);
-        List<ColoredPolygon> isoBands = gridValues.toIsoBands(numberOfIsoLevels, colorMapper);
+        List<Polyline> isoLines = gridValues.toIsoPolylines(numberOfIsoLevels);
+        List<ColoredRegion> isoBands = gridValues.toMergedIsoBands(numberOfIsoLevels, colorMapper);
 
         ContourPlot contourPlot = new ContourPlot(0, 1, 0, 1)
             .setBottomMargin(100)
@@ -60,8 +60,8 @@ public class TiGbpdDemo {
             .setContourWidth(300)
             .setContourHeight(300)
             .setBackgroundAndClear(WHITE)
-            .addIsoBands(isoBands, insideHexagonalSST(), INCLUSIVE)
-            .addIsoLines(isoLines, DARK_GRAY, new BasicStroke(0.5f), insideHexagonalSST(), EXCLUSIVE)
+            .addIsoRegions(isoBands, hexagonalSST())
+            .addIsoPolylinesIn(isoLines, DARK_GRAY, new BasicStroke(0.5f), hexagonalSSTRegion(), EXCLUSIVE)
             .addCircularMarginSST()
             .cropHexagonalSST()
             .addHexagonalSST();
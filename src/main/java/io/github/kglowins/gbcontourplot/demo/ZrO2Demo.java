@@ -4,11 +4,12 @@ import io.github.kglowins.gbcontourplot.ContourPlot;
 import io.github.kglowins.gbcontourplot.colorbar.ColorBarBuilder;
 import io.github.kglowins.gbcontourplot.colormappers.ColorMapper;
 import io.github.kglowins.gbcontourplot.colormappers.JetColorMapper;
-import io.github.kglowins.gbcontourplot.graphics.ColoredPolygon;
-import io.github.kglowins.gbcontourplot.graphics.LineEnds;
+import io.github.kglowins.gbcontourplot.graphics.ColoredRegion;
+import io.github.kglowins.gbcontourplot.graphics.Polyline;
 import io.github.kglowins.gbcontourplot.grid.Function2DValue;
 import io.github.kglowins.gbcontourplot.grid.Grid2DInterpolator;
 import io.github.kglowins.gbcontourplot.grid.Grid2DValues;
+import io.github.kglowins.gbcontourplot.grid.InterpolationWeights;
 
 import javax.swing.JPanel;
 import java.awt.BasicStroke;
@@ -18,9 +19,9 @@ import java.util.List;
 
 import static io.github.kglowins.gbcontourplot.colorbar.ColorBarLocation.RIGHT;
 import static io.github.kglowins.gbcontourplot.demo.DataPointsUtils.readDataPoints;
-import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.insideCubicSST;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.cubicSST;
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.cubicSSTRegion;
 import static io.github.kglowins.gbcontourplot.graphics.RegionCropStyle.EXCLUSIVE;
-import static io.github.kglowins.gbcontourplot.graphics.RegionCropStyle.INCLUSIVE;
 import static java.awt.Color.GRAY;
 import static java.awt.Color.WHITE;
 import static java.lang.Math.PI;
@@ -42,14 +43,18 @@ public class ZrO2Demo {
     public static JPanel createPlots() {
         JPanel gridPanel = new JPanel(new GridLayout(2, 4));
 
-        ContourPlot subplot1 = createSubplot(ZRO2_1450_1);
-        ContourPlot subplot2 = createSubplot(ZRO2_1450_2);
-        ContourPlot subplot3 = createSubplot(ZRO2_1450_3);
-        ContourPlot subplot4 = createSubplot(ZRO2_1450_COMBINED);
-        ContourPlot subplot5 = createSubplot(ZRO2_1500_1);
-        ContourPlot subplot6 = createSubplot(ZRO2_1500_2);
-        ContourPlot subplot7 = createSubplot(ZRO2_1500_3);
-        ContourPlot subplot8 = createSubplot(ZRO2_1500_COMBINED);
+        // all ZrO2 files share the same (x, y) layout
+        InterpolationWeights weights = Grid2DInterpolator.from(readDataPoints(ZRO2_1450_1)).withMaxNearest(7)
+            .compileWeights(0, tan(PI / 8), 0, tan(PI / 8), 100, 100, cubicSSTRegion());
+
+        ContourPlot subplot1 = createSubplot(ZRO2_1450_1, weights);
+        ContourPlot subplot2 = createSubplot(ZRO2_1450_2, weights);
+        ContourPlot subplot3 = createSubplot(ZRO2_1450_3, weights);
+        ContourPlot subplot4 = createSubplot(ZRO2_1450_COMBINED, weights);
+        ContourPlot subplot5 = createSubplot(ZRO2_1500_1, weights);
+        ContourPlot subplot6 = createSubplot(ZRO2_1500_2, weights);
+        ContourPlot subplot7 = createSubplot(ZRO2_1500_3, weights);
+        ContourPlot subplot8 = createSubplot(ZRO2_1500_COMBINED, weights);
 
         gridPanel.add(subplot1);
         gridPanel.add(subplot2);
@@ -63,15 +68,14 @@ public class ZrO2Demo {
         return gridPanel;
     }
 
-    private static ContourPlot createSubplot(String resourceName) {
+    private static ContourPlot createSubplot(String resourceName, InterpolationWeights weights) {
 
         List<Function2DValue> dataPoints = readDataPoints(resourceName);
-        Grid2DInterpolator interpolator = Grid2DInterpolator.from(dataPoints).withMaxNearest(7);
-        Grid2DValues gridValues = interpolator.interpolateOnGrid(0, tan(PI / 8), 0, tan(PI / 8), 100, 100);
+        Grid2DValues gridValues = weights.apply(dataPoints);
         ColorMapper colorMapper = new JetColorMapper();
         List<Double> isoLevels = asList(0.88, 0.95, 1.02, 1.09, 1.16, 1.23);
-        List<LineEnds> isoLines = gridValues.toIsoLines(isoLevels);
-        List<ColoredPolygon> isoBands = gridValues.toIsoBands(isoLevels, colorMapper, 0.859, 1.273);
+        List<Polyline> isoLines = gridValues.toIsoPolylines(isoLevels);
+        List<ColoredRegion> isoBands = gridValues.toMergedIsoBands(isoLevels, colorMapper, 0.859, 1.273);
 
         ContourPlot contourPlot = new ContourPlot(0, tan(PI / 8),
             0, tan(PI / 8))
@@ -82,8 +86,8 @@ public class ZrO2Demo {
             .setContourWidth(200)
             .setContourHeight(200)
             .setBackgroundAndClear(WHITE)
-            .addIsoBands(isoBands, insideCubicSST(), INCLUSIVE)
-            .addIsoLines(isoLines, GRAY, new BasicStroke(0.5f), insideCubicSST(), EXCLUSIVE)
+            .addIsoRegions(isoBands, cubicSST())
+            .addIsoPolylinesIn(isoLines, GRAY, new BasicStroke(0.5f), cubicSSTRegion(), EXCLUSIVE)
             .cropCubicSST()
             .addCubicSST();
 
@@ -0,0 +1,16 @@
+package io.github.kglowins.gbcontourplot.graphics;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.awt.Color;
+import java.util.List;
+
+// counter-clockwise outline of a merged iso band region with its clockwise holes
+@Value
+@AllArgsConstructor
+public class ColoredRegion {
+    List<Coordinates2D> outline;
+    List<List<Coordinates2D>> holes;
+    Color color;
+}
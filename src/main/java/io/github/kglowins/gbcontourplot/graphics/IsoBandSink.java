@@ -0,0 +1,8 @@
+package io.github.kglowins.gbcontourplot.graphics;
+
+// Receives iso band polygons as they are contoured, band counts from the lowest band; the points are the first n
+// of xs and ys, which are reused for the next polygon
+@FunctionalInterface
+public interface IsoBandSink {
+    void polygon(int band, double[] xs, double[] ys, int n);
+}
@@ -0,0 +1,7 @@
+package io.github.kglowins.gbcontourplot.graphics;
+
+// Receives iso line segments as they are contoured, level is the index of the segment's iso level
+@FunctionalInterface
+public interface IsoLineSink {
+    void segment(int level, double x1, double y1, double x2, double y2);
+}
@@ -5,6 +5,9 @@ import io.github.kglowins.gbcontourplot.colormappers.ColorMapper;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.util.List;
@@ -13,10 +16,8 @@ import java.util.function.BiFunction;
 import static java.awt.BasicStroke.CAP_BUTT;
 import static java.awt.BasicStroke.JOIN_MITER;
 import static java.lang.Math.PI;
-import static java.lang.Math.atan;
-import static java.lang.Math.atan2;
 import static java.lang.Math.cos;
-import static java.lang.Math.tan;
+import static java.lang.Math.sqrt;
 
 public class PlotUtils {
 
@@ -32,21 +33,60 @@ public class PlotUtils {
     }
 
     public static BiFunction<Double, Double, Boolean> insideCircle(double r) {
-        return (x, y) -> x * x + y * y <= r * r;
+        return circleRegion(r)::contains;
+    }
+
+    public static RegionPredicate circleRegion(double r) {
+        double rSq = r * r;
+        return (x, y) -> x * x + y * y <= rSq;
+    }
+
+    public static Shape circle(double r) {
+        return new Ellipse2D.Double(-r, -r, 2 * r, 2 * r);
     }
 
     public static BiFunction<Double, Double, Boolean> insideCubicSST() {
-        return (x, y) -> {
-            double cosOfAtan = cos(atan2(y, x));
-            return x <= cosOfAtan * tan(0.5 * atan(1 / cosOfAtan))
-                && y > 0 && y <= x;
-        };
+        return cubicSSTRegion()::contains;
+    }
+
+    // the arc r = tan(atan(1 / cos(t)) / 2) of the stereographic triangle is the circle (x + 1)^2 + y^2 = 2
+    public static RegionPredicate cubicSSTRegion() {
+        return (x, y) -> y > 0 && y <= x && (x + 1) * (x + 1) + y * y <= 2;
+    }
+
+    // outline of cubicSSTRegion built from the same circle, so clipping to it agrees with the predicate
+    public static Shape cubicSST() {
+        double r = sqrt(2);
+        Area sst = new Area(new Ellipse2D.Double(-1 - r, -r, 2 * r, 2 * r));
+        Path2D wedge = new Path2D.Double();
+        wedge.moveTo(0, 0);
+        wedge.lineTo(2, 0);
+        wedge.lineTo(2, 2);
+        wedge.closePath();
+        sst.intersect(new Area(wedge));
+        return sst;
     }
 
     public static BiFunction<Double, Double, Boolean> insideHexagonalSST() {
+        return hexagonalSSTRegion()::contains;
+    }
+
+    public static RegionPredicate hexagonalSSTRegion() {
+        double slope = cos(PI / 6);
         return (x, y) -> x * x + y * y <= 1
             && y > 0
-            && y < x * cos(PI / 6);
+            && y < x * slope;
+    }
+
+    public static Shape hexagonalSST() {
+        Area sst = new Area(new Ellipse2D.Double(-1, -1, 2, 2));
+        Path2D wedge = new Path2D.Double();
+        wedge.moveTo(0, 0);
+        wedge.lineTo(2, 0);
+        wedge.lineTo(2, 2 * cos(PI / 6));
+        wedge.closePath();
+        sst.intersect(new Area(wedge));
+        return sst;
     }
 
     //TODO copied from gbtoolbox-legacy
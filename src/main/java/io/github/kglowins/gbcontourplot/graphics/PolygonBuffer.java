@@ -0,0 +1,163 @@
+package io.github.kglowins.gbcontourplot.graphics;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+
+// Growable primitive storage of polygons, each tagged with the index of its iso band and its orientation.
+// Every point carries a key of its grid position (a vertex or a level crossing on an edge), equal for the points
+// that neighbouring cells share.
+public class PolygonBuffer {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private double[] xs = new double[4 * INITIAL_CAPACITY];
+    private double[] ys = new double[4 * INITIAL_CAPACITY];
+    private long[] pointKeys = new long[4 * INITIAL_CAPACITY];
+    private int[] polygonStarts = new int[INITIAL_CAPACITY + 1];
+    private int[] bands = new int[INITIAL_CAPACITY];
+    private boolean[] counterClockwise = new boolean[INITIAL_CAPACITY];
+    private int size;
+    private int points;
+
+    public void startPolygon(int band, boolean isCounterClockwise) {
+        if (size == bands.length) {
+            bands = Arrays.copyOf(bands, 2 * size);
+            counterClockwise = Arrays.copyOf(counterClockwise, 2 * size);
+            polygonStarts = Arrays.copyOf(polygonStarts, 2 * size + 1);
+        }
+        bands[size] = band;
+        counterClockwise[size] = isCounterClockwise;
+        polygonStarts[size] = points;
+        size++;
+        polygonStarts[size] = points;
+    }
+
+    public void addPoint(double x, double y, long key) {
+        if (points == xs.length) {
+            xs = Arrays.copyOf(xs, 2 * points);
+            ys = Arrays.copyOf(ys, 2 * points);
+            pointKeys = Arrays.copyOf(pointKeys, 2 * points);
+        }
+        xs[points] = x;
+        ys[points] = y;
+        pointKeys[points] = key;
+        points++;
+        polygonStarts[size] = points;
+    }
+
+    public void addPolygon(int band, boolean isCounterClockwise, double[] polygonXs, double[] polygonYs,
+                           long[] polygonKeys, int n) {
+        startPolygon(band, isCounterClockwise);
+        for (int point = 0; point < n; point++) {
+            addPoint(polygonXs[point], polygonYs[point], polygonKeys[point]);
+        }
+    }
+
+    public void addAll(PolygonBuffer other) {
+        for (int polygon = 0; polygon < other.size; polygon++) {
+            startPolygon(other.bands[polygon], other.counterClockwise[polygon]);
+            for (int point = 0; point < other.pointCount(polygon); point++) {
+                addPoint(other.x(polygon, point), other.y(polygon, point), other.key(polygon, point));
+            }
+        }
+    }
+
+    // stable counting sort, bands are in [0, numberOfBands)
+    public void sortByBand(int numberOfBands) {
+        int[] bandStarts = new int[numberOfBands + 1];
+        for (int polygon = 0; polygon < size; polygon++) {
+            bandStarts[bands[polygon] + 1]++;
+        }
+        for (int band = 0; band < numberOfBands; band++) {
+            bandStarts[band + 1] += bandStarts[band];
+        }
+        int[] targets = new int[size];
+        for (int polygon = 0; polygon < size; polygon++) {
+            targets[polygon] = bandStarts[bands[polygon]]++;
+        }
+        int[] sortedPolygonStarts = new int[polygonStarts.length];
+        int[] sortedBands = new int[bands.length];
+        boolean[] sortedCounterClockwise = new boolean[counterClockwise.length];
+        for (int polygon = 0; polygon < size; polygon++) {
+            sortedBands[targets[polygon]] = bands[polygon];
+            sortedCounterClockwise[targets[polygon]] = counterClockwise[polygon];
+            sortedPolygonStarts[targets[polygon] + 1] = pointCount(polygon);
+        }
+        for (int polygon = 0; polygon < size; polygon++) {
+            sortedPolygonStarts[polygon + 1] += sortedPolygonStarts[polygon];
+        }
+        double[] sortedXs = new double[xs.length];
+        double[] sortedYs = new double[ys.length];
+        long[] sortedPointKeys = new long[pointKeys.length];
+        for (int polygon = 0; polygon < size; polygon++) {
+            int source = polygonStarts[polygon];
+            int target = sortedPolygonStarts[targets[polygon]];
+            System.arraycopy(xs, source, sortedXs, target, pointCount(polygon));
+            System.arraycopy(ys, source, sortedYs, target, pointCount(polygon));
+            System.arraycopy(pointKeys, source, sortedPointKeys, target, pointCount(polygon));
+        }
+        xs = sortedXs;
+        ys = sortedYs;
+        pointKeys = sortedPointKeys;
+        polygonStarts = sortedPolygonStarts;
+        bands = sortedBands;
+        counterClockwise = sortedCounterClockwise;
+    }
+
+    public void clear() {
+        size = 0;
+        points = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int band(int polygon) {
+        return bands[polygon];
+    }
+
+    public boolean isCounterClockwise(int polygon) {
+        return counterClockwise[polygon];
+    }
+
+    public int pointCount(int polygon) {
+        return polygonStarts[polygon + 1] - polygonStarts[polygon];
+    }
+
+    public double x(int polygon, int point) {
+        return xs[polygonStarts[polygon] + point];
+    }
+
+    public double y(int polygon, int point) {
+        return ys[polygonStarts[polygon] + point];
+    }
+
+    public long key(int polygon, int point) {
+        return pointKeys[polygonStarts[polygon] + point];
+    }
+
+    public void forEach(IsoBandSink sink) {
+        double[] polygonXs = new double[0];
+        double[] polygonYs = new double[0];
+        for (int polygon = 0; polygon < size; polygon++) {
+            int n = pointCount(polygon);
+            if (n > polygonXs.length) {
+                polygonXs = new double[n];
+                polygonYs = new double[n];
+            }
+            System.arraycopy(xs, polygonStarts[polygon], polygonXs, 0, n);
+            System.arraycopy(ys, polygonStarts[polygon], polygonYs, 0, n);
+            sink.polygon(bands[polygon], polygonXs, polygonYs, n);
+        }
+    }
+
+    public List<Coordinates2D> toCoordinates(int polygon) {
+        return range(0, pointCount(polygon))
+            .mapToObj(point -> Coordinates2D.of(x(polygon, point), y(polygon, point)))
+            .collect(toList());
+    }
+}
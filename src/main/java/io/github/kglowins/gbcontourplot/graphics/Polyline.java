@@ -0,0 +1,18 @@
+package io.github.kglowins.gbcontourplot.graphics;
+
+import lombok.Value;
+import lombok.experimental.Accessors;
+
+@Value(staticConstructor = "of")
+@Accessors(fluent = true)
+public class Polyline {
+    double isoLevel;
+    double[] xs;
+    double[] ys;
+    // if closed, the last point connects back to the first one, which is not repeated
+    boolean closed;
+
+    public int size() {
+        return xs.length;
+    }
+}
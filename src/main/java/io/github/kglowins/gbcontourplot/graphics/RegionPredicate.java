@@ -0,0 +1,15 @@
+package io.github.kglowins.gbcontourplot.graphics;
+
+import java.util.function.BiFunction;
+
+import static java.util.Objects.isNull;
+
+// A region of the contour plane tested without boxing, e.g. PlotUtils.circleRegion(1)
+@FunctionalInterface
+public interface RegionPredicate {
+    boolean contains(double x, double y);
+
+    static RegionPredicate of(BiFunction<Double, Double, Boolean> regionFunction) {
+        return isNull(regionFunction) ? null : regionFunction::apply;
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.kglowins.gbcontourplot.graphics;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+
+// Growable primitive storage of iso line segments, each tagged with the index of its iso level.
+// Both ends carry a key of the grid edge they lie on, equal for the ends that meet in neighbouring cells.
+public class SegmentBuffer {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private double[] coords = new double[4 * INITIAL_CAPACITY];
+    private long[] endKeys = new long[2 * INITIAL_CAPACITY];
+    private int[] levels = new int[INITIAL_CAPACITY];
+    private int size;
+
+    public void add(int level, double x1, double y1, long key1, double x2, double y2, long key2) {
+        if (size == levels.length) {
+            levels = Arrays.copyOf(levels, 2 * size);
+            endKeys = Arrays.copyOf(endKeys, 4 * size);
+            coords = Arrays.copyOf(coords, 8 * size);
+        }
+        levels[size] = level;
+        endKeys[2 * size] = key1;
+        endKeys[2 * size + 1] = key2;
+        int offset = 4 * size;
+        coords[offset] = x1;
+        coords[offset + 1] = y1;
+        coords[offset + 2] = x2;
+        coords[offset + 3] = y2;
+        size++;
+    }
+
+    public void addAll(SegmentBuffer other) {
+        for (int segment = 0; segment < other.size; segment++) {
+            add(other.levels[segment],
+                other.x1(segment), other.y1(segment), other.key1(segment),
+                other.x2(segment), other.y2(segment), other.key2(segment));
+        }
+    }
+
+    // stable counting sort, levels are in [0, numberOfLevels)
+    public void sortByLevel(int numberOfLevels) {
+        int[] levelStarts = new int[numberOfLevels + 1];
+        for (int segment = 0; segment < size; segment++) {
+            levelStarts[levels[segment] + 1]++;
+        }
+        for (int level = 0; level < numberOfLevels; level++) {
+            levelStarts[level + 1] += levelStarts[level];
+        }
+        double[] sortedCoords = new double[coords.length];
+        long[] sortedEndKeys = new long[endKeys.length];
+        int[] sortedLevels = new int[levels.length];
+        for (int segment = 0; segment < size; segment++) {
+            int target = levelStarts[levels[segment]]++;
+            sortedLevels[target] = levels[segment];
+            System.arraycopy(endKeys, 2 * segment, sortedEndKeys, 2 * target, 2);
+            System.arraycopy(coords, 4 * segment, sortedCoords, 4 * target, 4);
+        }
+        coords = sortedCoords;
+        endKeys = sortedEndKeys;
+        levels = sortedLevels;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int level(int segment) {
+        return levels[segment];
+    }
+
+    public double x1(int segment) {
+        return coords[4 * segment];
+    }
+
+    public double y1(int segment) {
+        return coords[4 * segment + 1];
+    }
+
+    public double x2(int segment) {
+        return coords[4 * segment + 2];
+    }
+
+    public double y2(int segment) {
+        return coords[4 * segment + 3];
+    }
+
+    public long key1(int segment) {
+        return endKeys[2 * segment];
+    }
+
+    public long key2(int segment) {
+        return endKeys[2 * segment + 1];
+    }
+
+    public void forEach(IsoLineSink sink) {
+        for (int segment = 0; segment < size; segment++) {
+            sink.segment(levels[segment], x1(segment), y1(segment), x2(segment), y2(segment));
+        }
+    }
+
+    public LineEnds toLineEnds(int segment) {
+        return LineEnds.of(x1(segment), y1(segment), x2(segment), y2(segment));
+    }
+
+    public List<LineEnds> toLineEnds() {
+        return range(0, size).mapToObj(this::toLineEnds).collect(toList());
+    }
+}
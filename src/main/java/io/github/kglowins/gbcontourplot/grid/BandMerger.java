@@ -0,0 +1,289 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import io.github.kglowins.gbcontourplot.graphics.PolygonBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Unions the per-cell polygons of every band along the grid topology, without polygon clipping: an edge shared
+// by two polygons of the same band is walked in opposite directions once both are counter-clockwise and cancels
+// out, the remaining edges chain into counter-clockwise outer rings and clockwise holes.
+final class BandMerger {
+
+    private final PolygonBuffer fragments;
+    private final PolygonBuffer rings = new PolygonBuffer();
+
+    // points of the current band, identified by their PolygonBuffer keys
+    private LongIntHashMap pointIds;
+    private double[] pointX;
+    private double[] pointY;
+    private long[] pointKeys;
+
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private int edges;
+
+    // fragments must be sorted by band
+    BandMerger(PolygonBuffer fragments) {
+        this.fragments = fragments;
+    }
+
+    // every outer ring is followed by its holes
+    PolygonBuffer merge() {
+        int from = 0;
+        while (from < fragments.size()) {
+            int to = from;
+            while (to < fragments.size() && fragments.band(to) == fragments.band(from)) {
+                to++;
+            }
+            mergeBand(fragments.band(from), from, to);
+            from = to;
+        }
+        return rings;
+    }
+
+    private void mergeBand(int band, int fromPolygon, int toPolygon) {
+        int points = 0;
+        for (int polygon = fromPolygon; polygon < toPolygon; polygon++) {
+            points += fragments.pointCount(polygon);
+        }
+        pointIds = new LongIntHashMap(points);
+        pointX = new double[points];
+        pointY = new double[points];
+        pointKeys = new long[points];
+        edgeFrom = new int[points];
+        edgeTo = new int[points];
+        edges = 0;
+
+        LongIntHashMap edgeIds = new LongIntHashMap(points);
+        for (int polygon = fromPolygon; polygon < toPolygon; polygon++) {
+            int pointCount = fragments.pointCount(polygon);
+            boolean counterClockwise = fragments.isCounterClockwise(polygon);
+            for (int point = 0; point < pointCount; point++) {
+                int next = (point + 1) % pointCount;
+                int start = pointId(polygon, counterClockwise ? point : next);
+                int end = pointId(polygon, counterClockwise ? next : point);
+                if (start != end && edgeIds.putIfAbsent(edgeKey(start, end), edges) == LongIntHashMap.ABSENT) {
+                    edgeFrom[edges] = start;
+                    edgeTo[edges] = end;
+                    edges++;
+                }
+            }
+        }
+
+        boolean[] used = new boolean[edges];
+        for (int edge = 0; edge < edges; edge++) {
+            used[edge] = edgeIds.get(edgeKey(edgeTo[edge], edgeFrom[edge])) != LongIntHashMap.ABSENT;
+        }
+
+        List<Ring> outers = new ArrayList<>();
+        List<Ring> holes = new ArrayList<>();
+        int[] outgoingStarts = outgoingStarts(used);
+        int[] outgoing = outgoing(used, outgoingStarts);
+        int[] cursors = outgoingStarts.clone();
+        for (int edge = 0; edge < edges; edge++) {
+            if (used[edge]) {
+                continue;
+            }
+            Ring ring = traceRing(edge, used, outgoing, outgoingStarts, cursors);
+            if (ring.size >= 3) {
+                (ring.signedArea() > 0 ? outers : holes).add(ring);
+            }
+        }
+
+        List<List<Ring>> holesOfOuters = new ArrayList<>();
+        outers.forEach(outer -> holesOfOuters.add(new ArrayList<>()));
+        for (Ring hole : holes) {
+            int outer = innermostOuterContaining(outers, hole);
+            if (outer < 0) {
+                // every hole of a band lies in one of its outer rings, dropping it would fill the hole
+                throw new IllegalStateException("A hole of band " + band + " lies in none of its outer rings");
+            }
+            holesOfOuters.get(outer).add(hole);
+        }
+        for (int outer = 0; outer < outers.size(); outer++) {
+            addRing(band, outers.get(outer), true);
+            for (Ring hole : holesOfOuters.get(outer)) {
+                addRing(band, hole, false);
+            }
+        }
+    }
+
+    private int pointId(int polygon, int point) {
+        int id = pointIds.putIfAbsent(fragments.key(polygon, point), pointIds.size());
+        if (id != LongIntHashMap.ABSENT) {
+            return id;
+        }
+        id = pointIds.size() - 1;
+        pointX[id] = fragments.x(polygon, point);
+        pointY[id] = fragments.y(polygon, point);
+        pointKeys[id] = fragments.key(polygon, point);
+        return id;
+    }
+
+    private static long edgeKey(int start, int end) {
+        return (long) start << 32 | end;
+    }
+
+    private int[] outgoingStarts(boolean[] used) {
+        int[] starts = new int[pointIds.size() + 1];
+        for (int edge = 0; edge < edges; edge++) {
+            if (!used[edge]) {
+                starts[edgeFrom[edge] + 1]++;
+            }
+        }
+        for (int point = 0; point < pointIds.size(); point++) {
+            starts[point + 1] += starts[point];
+        }
+        return starts;
+    }
+
+    private int[] outgoing(boolean[] used, int[] outgoingStarts) {
+        int[] outgoing = new int[outgoingStarts[pointIds.size()]];
+        int[] fill = outgoingStarts.clone();
+        for (int edge = 0; edge < edges; edge++) {
+            if (!used[edge]) {
+                outgoing[fill[edgeFrom[edge]]++] = edge;
+            }
+        }
+        return outgoing;
+    }
+
+    // every point has as many remaining edges in as out, so the walk comes back to its start
+    private Ring traceRing(int firstEdge, boolean[] used, int[] outgoing, int[] outgoingStarts, int[] cursors) {
+        Ring ring = new Ring();
+        int start = edgeFrom[firstEdge];
+        int edge = firstEdge;
+        while (edge >= 0) {
+            used[edge] = true;
+            ring.add(edgeFrom[edge]);
+            int point = edgeTo[edge];
+            edge = -1;
+            if (point == start) {
+                break;
+            }
+            while (cursors[point] < outgoingStarts[point + 1] && edge < 0) {
+                int candidate = outgoing[cursors[point]++];
+                edge = used[candidate] ? -1 : candidate;
+            }
+        }
+        ring.dropPointsWithinGridLines();
+        return ring;
+    }
+
+    private int innermostOuterContaining(List<Ring> outers, Ring hole) {
+        // the middle of an edge of the hole lies on no other ring of the band
+        double x = 0.5 * (pointX[hole.points[0]] + pointX[hole.points[1]]);
+        double y = 0.5 * (pointY[hole.points[0]] + pointY[hole.points[1]]);
+        int innermost = -1;
+        double innermostArea = Double.POSITIVE_INFINITY;
+        for (int outer = 0; outer < outers.size(); outer++) {
+            Ring ring = outers.get(outer);
+            if (ring.signedArea() < innermostArea && ring.contains(x, y)) {
+                innermost = outer;
+                innermostArea = ring.signedArea();
+            }
+        }
+        return innermost;
+    }
+
+    private void addRing(int band, Ring ring, boolean counterClockwise) {
+        rings.startPolygon(band, counterClockwise);
+        for (int index = 0; index < ring.size; index++) {
+            int point = ring.points[index];
+            rings.addPoint(pointX[point], pointY[point], pointKeys[point]);
+        }
+    }
+
+    private final class Ring {
+        private int[] points = new int[16];
+        private int size;
+        private double area = Double.NaN;
+        private double xMin;
+        private double xMax;
+        private double yMin;
+        private double yMax;
+
+        private void add(int point) {
+            if (size == points.length) {
+                points = Arrays.copyOf(points, 2 * size);
+            }
+            points[size++] = point;
+        }
+
+        // a point of a grid line between its neighbours on the same line adds nothing to the outline
+        private void dropPointsWithinGridLines() {
+            int kept = 0;
+            for (int index = 0; index < size; index++) {
+                int point = points[index];
+                while (kept > 1 && isWithinGridLine(points[kept - 2], points[kept - 1], point)) {
+                    kept--;
+                }
+                if (kept == 0 || !isSamePosition(points[kept - 1], point)) {
+                    points[kept++] = point;
+                }
+            }
+            boolean dropped = true;
+            while (kept >= 3 && dropped) {
+                dropped = false;
+                if (isSamePosition(points[kept - 1], points[0])
+                    || isWithinGridLine(points[kept - 2], points[kept - 1], points[0])) {
+                    kept--;
+                    dropped = true;
+                } else if (isWithinGridLine(points[kept - 1], points[0], points[1])) {
+                    System.arraycopy(points, 1, points, 0, --kept);
+                    dropped = true;
+                }
+            }
+            size = kept;
+        }
+
+        private boolean isSamePosition(int point, int other) {
+            return pointX[point] == pointX[other] && pointY[point] == pointY[other];
+        }
+
+        private boolean isWithinGridLine(int previous, int point, int next) {
+            return (pointX[previous] == pointX[point] && pointX[point] == pointX[next])
+                || (pointY[previous] == pointY[point] && pointY[point] == pointY[next]);
+        }
+
+        private double signedArea() {
+            if (Double.isNaN(area)) {
+                double doubleArea = 0;
+                xMin = yMin = Double.POSITIVE_INFINITY;
+                xMax = yMax = Double.NEGATIVE_INFINITY;
+                for (int index = 0; index < size; index++) {
+                    int point = points[index];
+                    int next = points[(index + 1) % size];
+                    doubleArea += pointX[point] * pointY[next] - pointX[next] * pointY[point];
+                    xMin = Math.min(xMin, pointX[point]);
+                    xMax = Math.max(xMax, pointX[point]);
+                    yMin = Math.min(yMin, pointY[point]);
+                    yMax = Math.max(yMax, pointY[point]);
+                }
+                area = 0.5 * doubleArea;
+            }
+            return area;
+        }
+
+        // even-odd ray casting
+        private boolean contains(double x, double y) {
+            signedArea();
+            if (x < xMin || x > xMax || y < yMin || y > yMax) {
+                return false;
+            }
+            boolean inside = false;
+            for (int index = 0, previous = size - 1; index < size; previous = index++) {
+                double xi = pointX[points[index]];
+                double yi = pointY[points[index]];
+                double xj = pointX[points[previous]];
+                double yj = pointY[points[previous]];
+                if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import java.util.Arrays;
+
+// Min / max of the vertex values over blocks of BLOCK_CELLS x BLOCK_CELLS cells, with a quadtree above them:
+// node (xNode, yNode) of tier t covers the blocks [xNode << t, (xNode + 1) << t) x [yNode << t, (yNode + 1) << t).
+// NaN values are left out of min and max and only flagged. With a mask, only the cells inside it count.
+final class BlockPyramid {
+
+    static final int BLOCK_CELLS = 8;
+
+    private final int xCells;
+    private final int yCells;
+    // per tier, indexed by xNode * yNodes[tier] + yNode
+    private final int[] xNodes;
+    private final int[] yNodes;
+    private final double[][] mins;
+    private final double[][] maxs;
+    private final boolean[][] nans;
+    private final boolean[][] anyMasked;
+    private final boolean[][] allMasked;
+
+    // mask may be null
+    BlockPyramid(int xVertices, int yVertices, double[] values, GridMask mask) {
+        xCells = xVertices - 1;
+        yCells = yVertices - 1;
+        int tiers = 1;
+        for (int xBlocks = divideRoundingUp(xCells, BLOCK_CELLS), yBlocks = divideRoundingUp(yCells, BLOCK_CELLS);
+             xBlocks > 1 || yBlocks > 1; xBlocks = divideRoundingUp(xBlocks, 2), yBlocks = divideRoundingUp(yBlocks, 2)) {
+            tiers++;
+        }
+        xNodes = new int[tiers];
+        yNodes = new int[tiers];
+        mins = new double[tiers][];
+        maxs = new double[tiers][];
+        nans = new boolean[tiers][];
+        anyMasked = new boolean[tiers][];
+        allMasked = new boolean[tiers][];
+
+        xNodes[0] = divideRoundingUp(xCells, BLOCK_CELLS);
+        yNodes[0] = divideRoundingUp(yCells, BLOCK_CELLS);
+        allocate(0);
+        for (int xBlock = 0; xBlock < xNodes[0]; xBlock++) {
+            for (int yBlock = 0; yBlock < yNodes[0]; yBlock++) {
+                int node = xBlock * yNodes[0] + yBlock;
+                int endXCell = Math.min(xCells, (xBlock + 1) * BLOCK_CELLS);
+                int endYCell = Math.min(yCells, (yBlock + 1) * BLOCK_CELLS);
+                allMasked[0][node] = true;
+                for (int xCell = xBlock * BLOCK_CELLS; xCell < endXCell; xCell++) {
+                    for (int yCell = yBlock * BLOCK_CELLS; yCell < endYCell; yCell++) {
+                        if (mask != null && !mask.isCellInside(xCell, yCell)) {
+                            anyMasked[0][node] = true;
+                            continue;
+                        }
+                        allMasked[0][node] = false;
+                        int vertex = xCell * yVertices + yCell;
+                        addValue(node, values[vertex]);
+                        addValue(node, values[vertex + 1]);
+                        addValue(node, values[vertex + yVertices]);
+                        addValue(node, values[vertex + yVertices + 1]);
+                    }
+                }
+            }
+        }
+        for (int tier = 1; tier < tiers; tier++) {
+            xNodes[tier] = divideRoundingUp(xNodes[tier - 1], 2);
+            yNodes[tier] = divideRoundingUp(yNodes[tier - 1], 2);
+            allocate(tier);
+            for (int xChild = 0; xChild < xNodes[tier - 1]; xChild++) {
+                for (int yChild = 0; yChild < yNodes[tier - 1]; yChild++) {
+                    int child = xChild * yNodes[tier - 1] + yChild;
+                    int node = (xChild >> 1) * yNodes[tier] + (yChild >> 1);
+                    mins[tier][node] = Math.min(mins[tier][node], mins[tier - 1][child]);
+                    maxs[tier][node] = Math.max(maxs[tier][node], maxs[tier - 1][child]);
+                    nans[tier][node] |= nans[tier - 1][child];
+                    anyMasked[tier][node] |= anyMasked[tier - 1][child];
+                    allMasked[tier][node] &= allMasked[tier - 1][child];
+                }
+            }
+        }
+    }
+
+    private void allocate(int tier) {
+        int nodes = xNodes[tier] * yNodes[tier];
+        mins[tier] = new double[nodes];
+        maxs[tier] = new double[nodes];
+        nans[tier] = new boolean[nodes];
+        Arrays.fill(mins[tier], Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs[tier], Double.NEGATIVE_INFINITY);
+        anyMasked[tier] = new boolean[nodes];
+        allMasked[tier] = new boolean[nodes];
+        if (tier > 0) {
+            Arrays.fill(allMasked[tier], true);
+        }
+    }
+
+    private void addValue(int block, double f) {
+        mins[0][block] = f < mins[0][block] ? f : mins[0][block];
+        maxs[0][block] = f > maxs[0][block] ? f : maxs[0][block];
+        nans[0][block] |= Double.isNaN(f);
+    }
+
+    private static int divideRoundingUp(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    int tiers() {
+        return xNodes.length;
+    }
+
+    int node(int tier, int xCell, int yCell) {
+        return (xCell / BLOCK_CELLS >> tier) * yNodes[tier] + (yCell / BLOCK_CELLS >> tier);
+    }
+
+    double min(int tier, int node) {
+        return mins[tier][node];
+    }
+
+    double max(int tier, int node) {
+        return maxs[tier][node];
+    }
+
+    boolean hasNaN(int tier, int node) {
+        return nans[tier][node];
+    }
+
+    // some cells of the node are outside the mask
+    boolean isPartlyMasked(int tier, int node) {
+        return anyMasked[tier][node];
+    }
+
+    boolean isMasked(int tier, int node) {
+        return allMasked[tier][node];
+    }
+
+    // cells [firstXCell(tier, xCell), endXCell(tier, xCell)) of the tier's node containing xCell
+    int firstXCell(int tier, int xCell) {
+        return (xCell / BLOCK_CELLS >> tier << tier) * BLOCK_CELLS;
+    }
+
+    int endXCell(int tier, int xCell) {
+        return Math.min(xCells, ((xCell / BLOCK_CELLS >> tier) + 1 << tier) * BLOCK_CELLS);
+    }
+
+    int firstYCell(int tier, int yCell) {
+        return (yCell / BLOCK_CELLS >> tier << tier) * BLOCK_CELLS;
+    }
+
+    int endYCell(int tier, int yCell) {
+        return Math.min(yCells, ((yCell / BLOCK_CELLS >> tier) + 1 << tier) * BLOCK_CELLS);
+    }
+}
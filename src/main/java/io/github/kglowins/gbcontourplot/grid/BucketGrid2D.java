@@ -0,0 +1,147 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+// Uniform buckets over the bounding box of the points, searched ring by ring around the query bucket
+final class BucketGrid2D implements NeighbourIndex2D {
+
+    private static final int POINTS_PER_BUCKET = 2;
+    private static final double BOUNDARY_SLACK = 1e-9;
+
+    private final double xMin;
+    private final double yMin;
+    private final double bucketWidth;
+    private final double bucketHeight;
+    private final int columns;
+    private final int rows;
+
+    private final int[] bucketStarts;
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] ids;
+
+    BucketGrid2D(double[] x, double[] y, int[] pointIds) {
+        int size = pointIds.length;
+        double xLo = Double.POSITIVE_INFINITY;
+        double xHi = Double.NEGATIVE_INFINITY;
+        double yLo = Double.POSITIVE_INFINITY;
+        double yHi = Double.NEGATIVE_INFINITY;
+        for (int id : pointIds) {
+            xLo = min(xLo, x[id]);
+            xHi = max(xHi, x[id]);
+            yLo = min(yLo, y[id]);
+            yHi = max(yHi, y[id]);
+        }
+        double width = xHi - xLo;
+        double height = yHi - yLo;
+
+        int buckets = max(1, size / POINTS_PER_BUCKET);
+        if (width == 0 || height == 0) {
+            columns = width == 0 ? 1 : buckets;
+            rows = height == 0 ? 1 : buckets;
+        } else {
+            columns = max(1, (int) Math.round(Math.sqrt(buckets * width / height)));
+            rows = max(1, (buckets + columns - 1) / columns);
+        }
+        xMin = xLo;
+        yMin = yLo;
+        bucketWidth = width == 0 ? 1 : width / columns;
+        bucketHeight = height == 0 ? 1 : height / rows;
+
+        bucketStarts = new int[columns * rows + 1];
+        int[] pointBuckets = new int[size];
+        for (int i = 0; i < size; i++) {
+            pointBuckets[i] = bucket(column(x[pointIds[i]]), row(y[pointIds[i]]));
+            bucketStarts[pointBuckets[i] + 1]++;
+        }
+        for (int bucket = 0; bucket < columns * rows; bucket++) {
+            bucketStarts[bucket + 1] += bucketStarts[bucket];
+        }
+
+        xs = new double[size];
+        ys = new double[size];
+        ids = new int[size];
+        int[] fill = bucketStarts.clone();
+        for (int i = 0; i < size; i++) {
+            int slot = fill[pointBuckets[i]]++;
+            ids[slot] = pointIds[i];
+            xs[slot] = x[pointIds[i]];
+            ys[slot] = y[pointIds[i]];
+        }
+    }
+
+    @Override
+    public void nearest(double x, double y, NearestNeighbours neighbours) {
+        neighbours.clear();
+        int column = column(x);
+        int row = row(y);
+        visit(column, row, x, y, neighbours);
+
+        for (int ring = 1; ; ring++) {
+            int left = column - ring;
+            int right = column + ring;
+            int bottom = row - ring;
+            int top = row + ring;
+
+            for (int c = max(left, 0); c <= min(right, columns - 1); c++) {
+                if (bottom >= 0) {
+                    visit(c, bottom, x, y, neighbours);
+                }
+                if (top < rows) {
+                    visit(c, top, x, y, neighbours);
+                }
+            }
+            for (int r = max(bottom + 1, 0); r <= min(top - 1, rows - 1); r++) {
+                if (left >= 0) {
+                    visit(left, r, x, y, neighbours);
+                }
+                if (right < columns) {
+                    visit(right, r, x, y, neighbours);
+                }
+            }
+
+            double unvisitedDistance = Double.POSITIVE_INFINITY;
+            if (left > 0) {
+                unvisitedDistance = min(unvisitedDistance, x - (xMin + left * bucketWidth));
+            }
+            if (right < columns - 1) {
+                unvisitedDistance = min(unvisitedDistance, xMin + (right + 1) * bucketWidth - x);
+            }
+            if (bottom > 0) {
+                unvisitedDistance = min(unvisitedDistance, y - (yMin + bottom * bucketHeight));
+            }
+            if (top < rows - 1) {
+                unvisitedDistance = min(unvisitedDistance, yMin + (top + 1) * bucketHeight - y);
+            }
+            if (unvisitedDistance == Double.POSITIVE_INFINITY) {
+                return;
+            }
+            unvisitedDistance = max(0, unvisitedDistance - BOUNDARY_SLACK * min(bucketWidth, bucketHeight));
+            if (unvisitedDistance * unvisitedDistance > neighbours.worstDistanceSq()) {
+                return;
+            }
+        }
+    }
+
+    private void visit(int column, int row, double x, double y, NearestNeighbours neighbours) {
+        int bucket = bucket(column, row);
+        for (int i = bucketStarts[bucket]; i < bucketStarts[bucket + 1]; i++) {
+            double dx = xs[i] - x;
+            double dy = ys[i] - y;
+            neighbours.offer(ids[i], dx * dx + dy * dy);
+        }
+    }
+
+    private int column(double x) {
+        return max(0, min(columns - 1, (int) Math.floor((x - xMin) / bucketWidth)));
+    }
+
+    private int row(double y) {
+        return max(0, min(rows - 1, (int) Math.floor((y - yMin) / bucketHeight)));
+    }
+
+    private int bucket(int column, int row) {
+        return column * rows + row;
+    }
+}
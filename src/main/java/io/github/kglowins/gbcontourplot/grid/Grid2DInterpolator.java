@@ -1,15 +1,20 @@
 package io.github.kglowins.gbcontourplot.grid;
 
+import io.github.kglowins.gbcontourplot.graphics.RegionPredicate;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.javaml.core.kdtree.KDTree;
-import net.sf.javaml.core.kdtree.KeyDuplicateException;
-import net.sf.javaml.core.kdtree.KeySizeException;
 
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
 import static java.util.stream.IntStream.rangeClosed;
 
 @Slf4j
@@ -18,14 +23,27 @@ public class Grid2DInterpolator {
     private static final double EPS_TO_AVOID_DIV_BY_0 = 1e-10;
 
     private int maxNearest = 6;
-    private KDTree kdTree;
+    private int parallelism = 1;
+    private Executor executor;
+    private Grid2DSymmetry symmetry;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] fs;
+    private final int[] pointIds;
+    private NeighbourIndex2D index;
 
     private Grid2DInterpolator(Collection<Function2DValue> dataPoints) {
         if (isNull(dataPoints) || dataPoints.isEmpty()) {
             throw new IllegalArgumentException("dataPoints isEmpty or null");
         }
         logDataPointsRanges(dataPoints);
-        kdTree = createKdTree(dataPoints);
+
+        xs = dataPoints.stream().mapToDouble(Function2DValue::x).toArray();
+        ys = dataPoints.stream().mapToDouble(Function2DValue::y).toArray();
+        fs = dataPoints.stream().mapToDouble(Function2DValue::f).toArray();
+        pointIds = uniquePointIds();
+        index = createIndex(IndexType.KD_TREE);
     }
 
     private void logDataPointsRanges(Collection<Function2DValue> dataPoints) {
@@ -44,34 +62,245 @@ public class Grid2DInterpolator {
     }
 
     public Grid2DInterpolator withMaxNearest(int maxNearest) {
+        if (maxNearest < 1) {
+            throw new IllegalArgumentException("maxNearest < 1");
+        }
         this.maxNearest = maxNearest;
         return this;
     }
 
+    public Grid2DInterpolator withIndex(IndexType indexType) {
+        index = createIndex(indexType);
+        return this;
+    }
+
+    public Grid2DInterpolator withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    // rows are split over executor instead of the shared pool kept for the parallelism, for callers that keep
+    // their threads apart
+    public Grid2DInterpolator withExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    // interpolates only the vertices needed to cover the fundamental sector and maps the others onto it;
+    // compileWeights keeps weights for those vertices only and InterpolationWeights.apply maps the rest
+    public Grid2DInterpolator withSymmetry(Grid2DSymmetry symmetry) {
+        this.symmetry = symmetry;
+        return this;
+    }
+
     public Grid2DValues interpolateOnGrid(double xMin, double xMax,
                                           double yMin, double yMax,
                                           int xCells, int yCells) {
+        return interpolateOnGrid(xMin, xMax, yMin, yMax, xCells, yCells, null);
+    }
+
+    // Interpolates only the vertices of the cells with a corner inside the region, the other vertices are NaN
+    // and their cells are skipped by contouring. A null region stands for the whole grid.
+    public Grid2DValues interpolateOnGrid(double xMin, double xMax,
+                                          double yMin, double yMax,
+                                          int xCells, int yCells,
+                                          RegionPredicate region) {
 
         validateGridParams(xMin, xMax, yMin, yMax, xCells, yCells);
 
         long startMilli = Instant.now().toEpochMilli();
 
-        double[][] values = new double[1 + xCells][1 + yCells];
+        int yVertices = 1 + yCells;
+        double[] values = new double[(1 + xCells) * yVertices];
         double xCell = (xMax - xMin) / (double) xCells;
         double yCell = (yMax - yMin) / (double) yCells;
-        rangeClosed(0, xCells).forEach(xVertex -> {
-            double xCoord = xMin + xCell * (double) xVertex;
-            rangeClosed(0, yCells).forEach(yVertex -> {
-                double yCoord = yMin + yCell * (double) yVertex;
-                values[xVertex][yVertex] = interpolateAt(xCoord, yCoord);
+        GridMask mask = gridMask(region, xMin, yMin, xCell, yCell, 1 + xCells, yVertices);
+        SymmetryFill symmetryFill = symmetryFill(xMin, yMin, xCell, yCell, 1 + xCells, yVertices, mask);
+        RowStrips.forEach(1 + xCells, parallelism, executor, (strip, fromRow, toRow) -> {
+            NearestNeighbours neighbours = new NearestNeighbours(maxNearest);
+            range(fromRow, toRow).forEach(xVertex -> {
+                double xCoord = xMin + xCell * (double) xVertex;
+                rangeClosed(0, yCells).forEach(yVertex -> {
+                    if (!isInterpolated(xVertex * yVertices + yVertex, mask, symmetryFill)) {
+                        return;
+                    }
+                    double yCoord = yMin + yCell * (double) yVertex;
+                    values[xVertex * yVertices + yVertex] = interpolateAt(xCoord, yCoord, neighbours);
+                });
             });
         });
+        if (nonNull(symmetryFill)) {
+            symmetryFill.fill(values);
+        }
+        if (nonNull(mask)) {
+            mask.clearUnusedVertices(values);
+        }
 
         long finishMilli = Instant.now().toEpochMilli();
         long elapsedMilli = finishMilli - startMilli;
         log.debug("interpolateOnGrid took {} millis.", elapsedMilli);
 
-        return new Grid2DValues(xMin, yMin, xCell, yCell, values);
+        return new Grid2DValues(xMin, yMin, xCell, yCell, 1 + xCells, yVertices, values, false).withMask(mask);
+    }
+
+    // channels[c][i] is the value of channel c at the i-th data point; each vertex is searched once for all channels
+    public List<Grid2DValues> interpolateChannelsOnGrid(double xMin, double xMax,
+                                                        double yMin, double yMax,
+                                                        int xCells, int yCells,
+                                                        double[]... channels) {
+        return interpolateChannelsOnGrid(xMin, xMax, yMin, yMax, xCells, yCells, null, channels);
+    }
+
+    // the channels of interpolateChannelsOnGrid restricted to a region like interpolateOnGrid
+    public List<Grid2DValues> interpolateChannelsOnGrid(double xMin, double xMax,
+                                                        double yMin, double yMax,
+                                                        int xCells, int yCells,
+                                                        RegionPredicate region,
+                                                        double[]... channels) {
+
+        validateGridParams(xMin, xMax, yMin, yMax, xCells, yCells);
+        validateChannels(channels);
+
+        long startMilli = Instant.now().toEpochMilli();
+
+        int yVertices = 1 + yCells;
+        double[][] values = new double[channels.length][(1 + xCells) * yVertices];
+        double xCell = (xMax - xMin) / (double) xCells;
+        double yCell = (yMax - yMin) / (double) yCells;
+        GridMask mask = gridMask(region, xMin, yMin, xCell, yCell, 1 + xCells, yVertices);
+        SymmetryFill symmetryFill = symmetryFill(xMin, yMin, xCell, yCell, 1 + xCells, yVertices, mask);
+        RowStrips.forEach(1 + xCells, parallelism, executor, (strip, fromRow, toRow) -> {
+            NearestNeighbours neighbours = new NearestNeighbours(maxNearest);
+            double[] nominators = new double[channels.length];
+            range(fromRow, toRow).forEach(xVertex -> {
+                double xCoord = xMin + xCell * (double) xVertex;
+                rangeClosed(0, yCells).forEach(yVertex -> {
+                    if (!isInterpolated(xVertex * yVertices + yVertex, mask, symmetryFill)) {
+                        return;
+                    }
+                    double yCoord = yMin + yCell * (double) yVertex;
+                    index.nearest(xCoord, yCoord, neighbours);
+                    Arrays.fill(nominators, 0);
+                    double denominator = 0;
+                    for (int i = 0; i < neighbours.size(); i++) {
+                        double inverseDistanceSq = 1 / (neighbours.distanceSq(i) + EPS_TO_AVOID_DIV_BY_0);
+                        int id = neighbours.id(i);
+                        for (int channel = 0; channel < channels.length; channel++) {
+                            nominators[channel] += inverseDistanceSq * channels[channel][id];
+                        }
+                        denominator += inverseDistanceSq;
+                    }
+                    for (int channel = 0; channel < channels.length; channel++) {
+                        values[channel][xVertex * yVertices + yVertex] = nominators[channel] / denominator;
+                    }
+                });
+            });
+        });
+        if (nonNull(symmetryFill)) {
+            Arrays.stream(values).forEach(symmetryFill::fill);
+        }
+        if (nonNull(mask)) {
+            Arrays.stream(values).forEach(mask::clearUnusedVertices);
+        }
+
+        long finishMilli = Instant.now().toEpochMilli();
+        long elapsedMilli = finishMilli - startMilli;
+        log.debug("interpolateChannelsOnGrid of {} channels took {} millis.", channels.length, elapsedMilli);
+
+        return Arrays.stream(values)
+            .map(channelValues -> new Grid2DValues(xMin, yMin, xCell, yCell, 1 + xCells, yVertices, channelValues,
+                false).withMask(mask))
+            .collect(toList());
+    }
+
+    public InterpolationWeights compileWeights(double xMin, double xMax,
+                                               double yMin, double yMax,
+                                               int xCells, int yCells) {
+        return compileWeights(xMin, xMax, yMin, yMax, xCells, yCells, null);
+    }
+
+    // the vertices outside the region get no weights and come out as NaN like in interpolateOnGrid
+    public InterpolationWeights compileWeights(double xMin, double xMax,
+                                               double yMin, double yMax,
+                                               int xCells, int yCells,
+                                               RegionPredicate region) {
+
+        validateGridParams(xMin, xMax, yMin, yMax, xCells, yCells);
+
+        long startMilli = Instant.now().toEpochMilli();
+
+        int yVertices = 1 + yCells;
+        int rowLength = Math.min(maxNearest, pointIds.length);
+        int[] rowStarts = range(0, (1 + xCells) * yVertices + 1).map(vertex -> vertex * rowLength).toArray();
+        int[] neighbourIds = new int[rowStarts[rowStarts.length - 1]];
+        double[] weights = new double[neighbourIds.length];
+        double[] weightSums = new double[rowStarts.length - 1];
+
+        double xCell = (xMax - xMin) / (double) xCells;
+        double yCell = (yMax - yMin) / (double) yCells;
+        GridMask mask = gridMask(region, xMin, yMin, xCell, yCell, 1 + xCells, yVertices);
+        SymmetryFill symmetryFill = symmetryFill(xMin, yMin, xCell, yCell, 1 + xCells, yVertices, mask);
+        RowStrips.forEach(1 + xCells, parallelism, executor, (strip, fromRow, toRow) -> {
+            NearestNeighbours neighbours = new NearestNeighbours(maxNearest);
+            range(fromRow, toRow).forEach(xVertex -> {
+                double xCoord = xMin + xCell * (double) xVertex;
+                rangeClosed(0, yCells).forEach(yVertex -> {
+                    int vertex = xVertex * yVertices + yVertex;
+                    if (!isInterpolated(vertex, mask, symmetryFill)) {
+                        return;
+                    }
+                    double yCoord = yMin + yCell * (double) yVertex;
+                    index.nearest(xCoord, yCoord, neighbours);
+                    double denominator = 0;
+                    for (int i = 0; i < neighbours.size(); i++) {
+                        double inverseDistanceSq = 1 / (neighbours.distanceSq(i) + EPS_TO_AVOID_DIV_BY_0);
+                        neighbourIds[rowStarts[vertex] + i] = neighbours.id(i);
+                        weights[rowStarts[vertex] + i] = inverseDistanceSq;
+                        denominator += inverseDistanceSq;
+                    }
+                    weightSums[vertex] = denominator;
+                });
+            });
+        });
+
+        long finishMilli = Instant.now().toEpochMilli();
+        long elapsedMilli = finishMilli - startMilli;
+        log.debug("compileWeights took {} millis.", elapsedMilli);
+
+        return new InterpolationWeights(xMin, yMin, xCell, yCell, xCells, yCells,
+            xs, ys, rowStarts, neighbourIds, weights, weightSums, mask, symmetryFill);
+    }
+
+    private static GridMask gridMask(RegionPredicate region,
+                                     double xMin, double yMin, double xCell, double yCell,
+                                     int xVertices, int yVertices) {
+        if (isNull(region)) {
+            return null;
+        }
+        GridMask mask = new GridMask(region, xMin, yMin, xCell, yCell, xVertices, yVertices);
+        log.debug("region: {} of {} vertices used", mask.usedVertexCount(), xVertices * yVertices);
+        return mask;
+    }
+
+    private static boolean isInterpolated(int vertex, GridMask mask, SymmetryFill symmetryFill) {
+        if (nonNull(symmetryFill)) {
+            return symmetryFill.isInterpolated(vertex);
+        }
+        return isNull(mask) || mask.isVertexUsed(vertex);
+    }
+
+    private SymmetryFill symmetryFill(double xMin, double yMin, double xCell, double yCell,
+                                      int xVertices, int yVertices, GridMask mask) {
+        if (isNull(symmetry)) {
+            return null;
+        }
+        SymmetryFill symmetryFill = new SymmetryFill(symmetry, xMin, yMin, xCell, yCell, xVertices, yVertices, mask);
+        log.debug("symmetry of order {}: interpolating {} of {} vertices",
+            symmetry.order(), symmetryFill.interpolatedCount(), xVertices * yVertices);
+        return symmetryFill;
     }
 
     private static void validateGridParams(double xMin, double xMax, double yMin, double yMax, int xCells, int yCells) {
@@ -89,50 +318,56 @@ public class Grid2DInterpolator {
         }
     }
 
-    public double interpolateAt(double x, double y) {
-        try {
-            Object[] nearest = kdTree.nearest(key2D(x, y), maxNearest);
-            double nominator = 0;
-            double denominator = 0;
-
-            for (Object o : nearest) {
-                if (nonNull(o)) {
-                    Function2DValue nearDataPoint = (Function2DValue) o;
-                    double distanceSq = distanceSq(x, y, nearDataPoint);
-                    double inverseDistanceSq = 1 / (distanceSq + EPS_TO_AVOID_DIV_BY_0);
-
-                    nominator += inverseDistanceSq * nearDataPoint.f();
-                    denominator += inverseDistanceSq;
-                }
+    private void validateChannels(double[][] channels) {
+        if (isNull(channels) || channels.length == 0) {
+            throw new IllegalArgumentException("channels isEmpty or null");
+        }
+        range(0, channels.length).forEach(channel -> {
+            if (isNull(channels[channel]) || channels[channel].length != xs.length) {
+                throw new IllegalArgumentException("channel " + channel + " does not have one value per data point");
             }
-            return nominator / denominator;
+        });
+    }
 
-        } catch (KeySizeException e) {
-            log.error("Error when estimating at ({}, {})", x, y, e);
-            throw new IllegalArgumentException(e);
-        }
+    public double interpolateAt(double x, double y) {
+        return interpolateAt(x, y, new NearestNeighbours(maxNearest));
     }
 
-    private KDTree createKdTree(Collection<Function2DValue> dataPoints) {
-        KDTree kdTree = new KDTree(2);
-        dataPoints.forEach(dataPoint -> {
-            try {
-                kdTree.insert(key2D(dataPoint.x(), dataPoint.y()), dataPoint);
-            } catch (KeySizeException | KeyDuplicateException e) {
-                log.error("Failed to insert {} to kdTree", dataPoint, e);
-            }
-        });
-        return kdTree;
+    private double interpolateAt(double x, double y, NearestNeighbours neighbours) {
+        index.nearest(x, y, neighbours);
+        double nominator = 0;
+        double denominator = 0;
+
+        for (int i = 0; i < neighbours.size(); i++) {
+            double inverseDistanceSq = 1 / (neighbours.distanceSq(i) + EPS_TO_AVOID_DIV_BY_0);
+
+            nominator += inverseDistanceSq * fs[neighbours.id(i)];
+            denominator += inverseDistanceSq;
+        }
+        return nominator / denominator;
     }
 
-    private double[] key2D(double x, double y) {
-        return new double[]{x, y};
+    private NeighbourIndex2D createIndex(IndexType indexType) {
+        switch (indexType) {
+            case KD_TREE:
+                return new KdTree2D(xs, ys, pointIds);
+            case BUCKET_GRID:
+                return new BucketGrid2D(xs, ys, pointIds);
+            default:
+                throw new IllegalArgumentException("Unsupported indexType " + indexType);
+        }
     }
 
-    private double distanceSq(double x, double y, Function2DValue nearDataPoint)
-    {
-        double dx = nearDataPoint.x() - x;
-        double dy = nearDataPoint.y() - y;
-        return dx * dx + dy * dy;
+    private int[] uniquePointIds() {
+        Set<List<Double>> keys = new HashSet<>();
+        return range(0, xs.length)
+            .filter(id -> {
+                boolean unique = keys.add(List.of(xs[id] + 0.0, ys[id] + 0.0));
+                if (!unique) {
+                    log.error("Skipping duplicate data point ({}, {}, {})", xs[id], ys[id], fs[id]);
+                }
+                return unique;
+            })
+            .toArray();
     }
 }
@@ -0,0 +1,58 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import static java.lang.Math.PI;
+import static java.lang.Math.atan2;
+import static java.lang.Math.cos;
+import static java.lang.Math.hypot;
+import static java.lang.Math.sin;
+
+// Point symmetry about the origin (the centre of the stereographic disk): an n-fold rotation, optionally with
+// n mirror lines, one of them at mirrorAngle (radians) from the x axis. Hexagonal 6/mmm is dihedral(6, 0).
+public final class Grid2DSymmetry {
+
+    private final int fold;
+    private final boolean mirrored;
+    private final double mirrorAngle;
+
+    private Grid2DSymmetry(int fold, boolean mirrored, double mirrorAngle) {
+        if (fold < 1) {
+            throw new IllegalArgumentException("fold < 1");
+        }
+        if (!Double.isFinite(mirrorAngle)) {
+            throw new IllegalArgumentException("mirrorAngle is not finite");
+        }
+        this.fold = fold;
+        this.mirrored = mirrored;
+        this.mirrorAngle = mirrorAngle;
+    }
+
+    public static Grid2DSymmetry cyclic(int fold) {
+        return new Grid2DSymmetry(fold, false, 0);
+    }
+
+    public static Grid2DSymmetry dihedral(int fold, double mirrorAngle) {
+        return new Grid2DSymmetry(fold, true, mirrorAngle);
+    }
+
+    public static Grid2DSymmetry mirror(double mirrorAngle) {
+        return dihedral(1, mirrorAngle);
+    }
+
+    public int order() {
+        return mirrored ? 2 * fold : fold;
+    }
+
+    // the image of (x, y) in the fundamental sector: angles [0, 2 pi / n) for cyclic symmetry,
+    // [mirrorAngle, mirrorAngle + pi / n] for dihedral symmetry
+    void toFundamentalSector(double x, double y, double[] image) {
+        double sector = 2 * PI / fold;
+        double angle = atan2(y, x) - mirrorAngle;
+        angle -= sector * Math.floor(angle / sector);
+        if (mirrored && angle > 0.5 * sector) {
+            angle = sector - angle;
+        }
+        double r = hypot(x, y);
+        image[0] = r * cos(mirrorAngle + angle);
+        image[1] = r * sin(mirrorAngle + angle);
+    }
+}
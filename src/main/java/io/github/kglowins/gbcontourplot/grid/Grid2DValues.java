@@ -1,58 +1,204 @@
 package io.github.kglowins.gbcontourplot.grid;
 
 import io.github.kglowins.gbcontourplot.graphics.ColoredPolygon;
+import io.github.kglowins.gbcontourplot.graphics.ColoredRegion;
+import io.github.kglowins.gbcontourplot.graphics.IsoBandSink;
+import io.github.kglowins.gbcontourplot.graphics.IsoLineSink;
 import io.github.kglowins.gbcontourplot.graphics.LineEnds;
+import io.github.kglowins.gbcontourplot.graphics.PolygonBuffer;
+import io.github.kglowins.gbcontourplot.graphics.Polyline;
+import io.github.kglowins.gbcontourplot.graphics.RegionPredicate;
+import io.github.kglowins.gbcontourplot.graphics.SegmentBuffer;
 import io.github.kglowins.gbcontourplot.colormappers.ColorMapper;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.awt.Color;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.concurrent.Executor;
 
 import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.getIsoBandColor;
 import static java.util.Comparator.naturalOrder;
+import static java.util.Objects.nonNull;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.IntStream.range;
 import static java.util.stream.IntStream.rangeClosed;
 
-@RequiredArgsConstructor
 @Slf4j
 public class Grid2DValues {
     private final double xMin;
     private final double yMin;
     private final double xCell;
     private final double yCell;
-    private final double[][] values;
+    @Getter
+    private final int xVertices;
+    @Getter
+    private final int yVertices;
+    // value at (xVertex, yVertex) is stored at xVertex * yVertices + yVertex, never changed after construction
+    private final double[] values;
+
+    private int parallelism = 1;
+    private Executor executor;
+    private BlockPyramid pyramid;
+    private GridMask mask;
 
+    // statistics of the values, NaN values aside
     @Getter
-    private double fMin;
+    private final double fMin;
     @Getter
-    private double fMax;
+    private final double fMax;
+    @Getter
+    private final double mean;
+    @Getter
+    private final int nanCount;
+
+    private List<Grid2DCell> cells;
+
+    public Grid2DValues(double xMin, double yMin, double xCell, double yCell, double[][] values) {
+        this(xMin, yMin, xCell, yCell, values.length, values[0].length, flatten(values), false);
+    }
+
+    // values are copied, so a caller that refills its array afterwards does not change the grid
+    public Grid2DValues(double xMin, double yMin, double xCell, double yCell,
+                        int xVertices, int yVertices, double[] values) {
+        this(xMin, yMin, xCell, yCell, xVertices, yVertices, values, true);
+    }
+
+    // copy is false for a fresh array handed over by the interpolators, which no one else writes to
+    Grid2DValues(double xMin, double yMin, double xCell, double yCell,
+                 int xVertices, int yVertices, double[] values, boolean copy) {
+        if (xVertices < 2) {
+            throw new IllegalArgumentException("xVertices < 2");
+        }
+        if (yVertices < 2) {
+            throw new IllegalArgumentException("yVertices < 2");
+        }
+        if (values.length != xVertices * yVertices) {
+            throw new IllegalArgumentException("values.length != xVertices * yVertices");
+        }
+        this.xMin = xMin;
+        this.yMin = yMin;
+        this.xCell = xCell;
+        this.yCell = yCell;
+        this.xVertices = xVertices;
+        this.yVertices = yVertices;
+        this.values = copy ? values.clone() : values;
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        int nans = 0;
+        for (double value : this.values) {
+            if (Double.isNaN(value)) {
+                nans++;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+            }
+        }
+        boolean allNaN = nans == values.length;
+        fMin = allNaN ? Double.NaN : min;
+        fMax = allNaN ? Double.NaN : max;
+        mean = allNaN ? Double.NaN : sum / (values.length - nans);
+        nanCount = nans;
+    }
+
+    private static double[] flatten(double[][] values) {
+        int yVertices = values[0].length;
+        double[] flat = new double[values.length * yVertices];
+        range(0, values.length).forEach(xVertex -> {
+            if (values[xVertex].length != yVertices) {
+                throw new IllegalArgumentException("values is not rectangular");
+            }
+            System.arraycopy(values[xVertex], 0, flat, xVertex * yVertices, yVertices);
+        });
+        return flat;
+    }
+
+    public Grid2DValues withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public Grid2DValues withExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
 
-    public List<Grid2DCell> toCells() {
+    // Builds min / max of blocks of cells once, so that contouring skips the blocks no level crosses and emits
+    // blocks within a single band as one rectangle. Pays off when the same grid is contoured again and again.
+    public Grid2DValues withBlockPyramid() {
         long startMillis = Instant.now().toEpochMilli();
+        pyramid = new BlockPyramid(xVertices, yVertices, values, mask);
+        log.debug("withBlockPyramid took {} millis.", Instant.now().toEpochMilli() - startMillis);
+        return this;
+    }
+
+    // Contours only the cells with a corner inside the region; the statistics still cover every vertex.
+    // Grid2DInterpolator.interpolateOnGrid with a region also leaves the other vertices out (as NaN).
+    public Grid2DValues withRegion(RegionPredicate region) {
+        long startMillis = Instant.now().toEpochMilli();
+        withMask(new GridMask(region, xMin, yMin, xCell, yCell, xVertices, yVertices));
+        log.debug("withRegion took {} millis.", Instant.now().toEpochMilli() - startMillis);
+        return this;
+    }
 
-        List<Grid2DCell> cells = new ArrayList<>();
+    Grid2DValues withMask(GridMask mask) {
+        this.mask = mask;
+        if (nonNull(pyramid)) {
+            pyramid = new BlockPyramid(xVertices, yVertices, values, mask);
+        }
+        return this;
+    }
 
-        int xCells = values.length;
-        int yCells = values[0].length;
+    public double getValue(int xVertex, int yVertex) {
+        return values[xVertex * yVertices + yVertex];
+    }
 
-        fMin = Arrays.stream(values).flatMapToDouble(Arrays::stream).min().getAsDouble();
-        fMax = Arrays.stream(values).flatMapToDouble(Arrays::stream).max().getAsDouble();
+    // bilinear value at (x, y); NaN outside the grid, in a cell outside the mask or next to a NaN vertex
+    public double interpolateValue(double x, double y) {
+        double xIndex = (x - xMin) / xCell;
+        double yIndex = (y - yMin) / yCell;
+        if (!(xIndex >= 0 && xIndex <= xVertices - 1 && yIndex >= 0 && yIndex <= yVertices - 1)) {
+            return Double.NaN;
+        }
+        int xVertex = Math.min((int) xIndex, xVertices - 2);
+        int yVertex = Math.min((int) yIndex, yVertices - 2);
+        if (nonNull(mask) && !mask.isCellInside(xVertex, yVertex)) {
+            return Double.NaN;
+        }
+        double xFraction = xIndex - xVertex;
+        double yFraction = yIndex - yVertex;
+        int vertex = xVertex * yVertices + yVertex;
+        return (1 - xFraction) * ((1 - yFraction) * values[vertex] + yFraction * values[vertex + 1])
+            + xFraction * ((1 - yFraction) * values[vertex + yVertices] + yFraction * values[vertex + yVertices + 1]);
+    }
 
-        range(0, xCells - 1).forEach(xVertex ->
-                range(0, yCells - 1).forEach(yVertex -> cells.add(new Grid2DCell(
+    // built on the first call, the cells are shared by later calls
+    public synchronized List<Grid2DCell> toCells() {
+        if (nonNull(cells)) {
+            return cells;
+        }
+        long startMillis = Instant.now().toEpochMilli();
+
+        List<Grid2DCell> newCells = new ArrayList<>((xVertices - 1) * (yVertices - 1));
+        range(0, xVertices - 1).forEach(xVertex ->
+                range(0, yVertices - 1).forEach(yVertex -> newCells.add(new Grid2DCell(
                     f2dFromVertexIndexes(xVertex, yVertex + 1),
                     f2dFromVertexIndexes(xVertex + 1, yVertex + 1),
                     f2dFromVertexIndexes(xVertex + 1, yVertex),
                     f2dFromVertexIndexes(xVertex, yVertex)
                 )))
         );
+        cells = Collections.unmodifiableList(newCells);
 
         long finishMillis = Instant.now().toEpochMilli();
         long elapsedMillis = finishMillis - startMillis;
@@ -61,21 +207,55 @@ public class Grid2DValues {
     }
 
     public List<LineEnds> toIsoLines(int numberOfIsoLines) {
-        fMin = Arrays.stream(values).flatMapToDouble(Arrays::stream).min().getAsDouble();
-        fMax = Arrays.stream(values).flatMapToDouble(Arrays::stream).max().getAsDouble();
-        double bandWidth = (fMax - fMin) / (numberOfIsoLines + 1);
-        List<Double> isoLevels = range(0, numberOfIsoLines).boxed()
-            .map(index -> fMin + (index + 1) * bandWidth)
-            .collect(toList());
-        log.debug("toIsoLines(n): isoLevels = {}", isoLevels);
-        return toIsoLines(isoLevels);
+        return toIsoLines(getAutoIsoLevels(numberOfIsoLines));
     }
 
     public List<LineEnds> toIsoLines(List<Double> isoLevels) {
-        List<Grid2DCell> cells = toCells();
-        return isoLevels.stream()
-            .flatMap(isoLevel -> isoLinesOfOneLevel(isoLevel, cells))
-            .collect(toList());
+        long startMillis = Instant.now().toEpochMilli();
+
+        SegmentBuffer segments = isoLineSegments(isoLevels.stream().mapToDouble(Double::doubleValue).toArray());
+
+        long finishMillis = Instant.now().toEpochMilli();
+        log.debug("toIsoLines took {} millis.", finishMillis - startMillis);
+        return segments.toLineEnds();
+    }
+
+    // Streams the segments into the sink on the calling thread instead of collecting them; serially they come
+    // cell after cell, in parallel strip after strip, each strip buffered while the others are contoured
+    public void toIsoLines(List<Double> isoLevels, IsoLineSink sink) {
+        long startMillis = Instant.now().toEpochMilli();
+
+        double[] levels = isoLevels.stream().mapToDouble(Double::doubleValue).toArray();
+        if (numberOfStrips() == 1) {
+            marchingSquares().isoLines(levels, 0, xVertices - 1,
+                (level, x1, y1, key1, x2, y2, key2) -> sink.segment(level, x1, y1, x2, y2));
+        } else {
+            SegmentBuffer[] stripSegments = new SegmentBuffer[numberOfStrips()];
+            RowStrips.forEach(xVertices - 1, parallelism, executor, (strip, fromXCell, toXCell) -> {
+                stripSegments[strip] = new SegmentBuffer();
+                marchingSquares().isoLines(levels, fromXCell, toXCell, stripSegments[strip]::add);
+            });
+            Arrays.stream(stripSegments).forEach(segments -> segments.forEach(sink));
+        }
+
+        long finishMillis = Instant.now().toEpochMilli();
+        log.debug("toIsoLines to sink took {} millis.", finishMillis - startMillis);
+    }
+
+    public List<Polyline> toIsoPolylines(int numberOfIsoLines) {
+        return toIsoPolylines(getAutoIsoLevels(numberOfIsoLines));
+    }
+
+    // iso lines joined into open or closed polylines, level after level
+    public List<Polyline> toIsoPolylines(List<Double> isoLevels) {
+        long startMillis = Instant.now().toEpochMilli();
+
+        double[] levels = isoLevels.stream().mapToDouble(Double::doubleValue).toArray();
+        List<Polyline> polylines = new PolylineStitcher(isoLineSegments(levels), levels).stitch();
+
+        long finishMillis = Instant.now().toEpochMilli();
+        log.debug("toIsoPolylines took {} millis.", finishMillis - startMillis);
+        return polylines;
     }
 
     public List<Double> getAutoIsoLevels(int numberOfIsoLines) {
@@ -98,8 +278,77 @@ public class Grid2DValues {
 
     public List<ColoredPolygon> toIsoBands(List<Double> isoLevels, ColorMapper colorMapper,
                                            double rangeMin, double rangeMax) {
-        List<Grid2DCell> cells = toCells();
+        long startMillis = Instant.now().toEpochMilli();
+
+        validateColorRange(isoLevels, rangeMin, rangeMax);
+
+        PolygonBuffer polygons = isoBandPolygons(isoLevels);
+        List<Color> isoBandColors = isoBandColors(isoLevels, colorMapper, rangeMin, rangeMax);
+        List<ColoredPolygon> coloredPolygons = range(0, polygons.size())
+            .mapToObj(polygon -> new ColoredPolygon(
+                polygons.toCoordinates(polygon), isoBandColors.get(polygons.band(polygon))))
+            .collect(toList());
+
+        long finishMillis = Instant.now().toEpochMilli();
+        log.debug("toIsoBands took {} millis.", finishMillis - startMillis);
+        return coloredPolygons;
+    }
+
+    // Streams the polygons into the sink like toIsoLines(isoLevels, sink); band 0 lies below the lowest of
+    // isoLevels and band isoLevels.size() above the highest
+    public void toIsoBands(List<Double> isoLevels, IsoBandSink sink) {
+        long startMillis = Instant.now().toEpochMilli();
 
+        double[] levels = bandsLevels(isoLevels);
+        if (numberOfStrips() == 1) {
+            marchingSquares().isoBands(levels, 0, xVertices - 1,
+                (band, counterClockwise, xs, ys, keys, n) -> sink.polygon(band, xs, ys, n));
+        } else {
+            PolygonBuffer[] stripPolygons = new PolygonBuffer[numberOfStrips()];
+            RowStrips.forEach(xVertices - 1, parallelism, executor, (strip, fromXCell, toXCell) -> {
+                stripPolygons[strip] = new PolygonBuffer();
+                marchingSquares().isoBands(levels, fromXCell, toXCell, stripPolygons[strip]::addPolygon);
+            });
+            Arrays.stream(stripPolygons).forEach(polygons -> polygons.forEach(sink));
+        }
+
+        long finishMillis = Instant.now().toEpochMilli();
+        log.debug("toIsoBands to sink took {} millis.", finishMillis - startMillis);
+    }
+
+    public List<ColoredRegion> toMergedIsoBands(int numberOfIsoLines, ColorMapper colorMapper) {
+        return toMergedIsoBands(getAutoIsoLevels(numberOfIsoLines), colorMapper, fMin, fMax);
+    }
+
+    public List<ColoredRegion> toMergedIsoBands(List<Double> isoLevels, ColorMapper colorMapper) {
+        return toMergedIsoBands(isoLevels, colorMapper, fMin, fMax);
+    }
+
+    // the polygons of toIsoBands joined across cells into regions with holes, band after band
+    public List<ColoredRegion> toMergedIsoBands(List<Double> isoLevels, ColorMapper colorMapper,
+                                                double rangeMin, double rangeMax) {
+        long startMillis = Instant.now().toEpochMilli();
+
+        validateColorRange(isoLevels, rangeMin, rangeMax);
+
+        PolygonBuffer rings = new BandMerger(isoBandPolygons(isoLevels)).merge();
+        List<Color> isoBandColors = isoBandColors(isoLevels, colorMapper, rangeMin, rangeMax);
+        List<ColoredRegion> regions = new ArrayList<>();
+        range(0, rings.size()).forEach(ring -> {
+            if (rings.isCounterClockwise(ring)) {
+                regions.add(new ColoredRegion(rings.toCoordinates(ring), new ArrayList<>(),
+                    isoBandColors.get(rings.band(ring))));
+            } else {
+                regions.get(regions.size() - 1).getHoles().add(rings.toCoordinates(ring));
+            }
+        });
+
+        long finishMillis = Instant.now().toEpochMilli();
+        log.debug("toMergedIsoBands took {} millis.", finishMillis - startMillis);
+        return regions;
+    }
+
+    static void validateColorRange(List<Double> isoLevels, double rangeMin, double rangeMax) {
         double minIsoLevel = isoLevels.stream().mapToDouble(Double::doubleValue).min().getAsDouble();
         double maxIsoLevel = isoLevels.stream().mapToDouble(Double::doubleValue).max().getAsDouble();
 
@@ -113,39 +362,59 @@ public class Grid2DValues {
         if (rangeMax < maxIsoLevel) {
             throw new IllegalArgumentException("rangeMax must be >= max(IsoLevels)");
         }
+    }
 
+    static double[] bandsLevels(List<Double> isoLevels) {
         List<Double> bandsLevels = new ArrayList<>(isoLevels);
         bandsLevels.add(Double.MIN_VALUE);
         bandsLevels.add(Double.MAX_VALUE);
         bandsLevels.sort(naturalOrder());
+        return bandsLevels.stream().mapToDouble(Double::doubleValue).toArray();
+    }
 
-        List<Double> scaledlevels = getScaledLevelsForColors(isoLevels, rangeMin, rangeMax);
+    private PolygonBuffer isoBandPolygons(List<Double> isoLevels) {
+        double[] levels = bandsLevels(isoLevels);
+        PolygonBuffer[] stripPolygons = new PolygonBuffer[numberOfStrips()];
+        RowStrips.forEach(xVertices - 1, parallelism, executor, (strip, fromXCell, toXCell) -> {
+            stripPolygons[strip] = new PolygonBuffer();
+            marchingSquares().isoBands(levels, fromXCell, toXCell, stripPolygons[strip]::addPolygon);
+        });
+        PolygonBuffer polygons = stripPolygons[0];
+        range(1, stripPolygons.length).forEach(strip -> polygons.addAll(stripPolygons[strip]));
+        polygons.sortByBand(levels.length - 1);
+        return polygons;
+    }
 
+    List<Color> isoBandColors(List<Double> isoLevels, ColorMapper colorMapper,
+                                      double rangeMin, double rangeMax) {
+        List<Double> scaledlevels = getScaledLevelsForColors(isoLevels, rangeMin, rangeMax);
         return rangeClosed(0, isoLevels.size())
-            .boxed()
-            .flatMap(index -> {
-                Color isoBandColor = getIsoBandColor(colorMapper, scaledlevels, index);
-                return isoBandsBetweenTwoLevels(
-                    bandsLevels.get(index), bandsLevels.get(index + 1),
-                    cells,
-                    isoBandColor);
-            })
+            .mapToObj(band -> getIsoBandColor(colorMapper, scaledlevels, band))
             .collect(toList());
     }
 
-    private Stream<ColoredPolygon> isoBandsBetweenTwoLevels(double lowerLevel, double upperLevel,
-                                                            List<Grid2DCell> cells, Color color) {
-        return cells.stream()
-            .flatMap(cell -> cell.toPolygons(lowerLevel, upperLevel).stream())
-            .map(polygon -> new ColoredPolygon(polygon, color));
+    private SegmentBuffer isoLineSegments(double[] levels) {
+        SegmentBuffer[] stripSegments = new SegmentBuffer[numberOfStrips()];
+        RowStrips.forEach(xVertices - 1, parallelism, executor, (strip, fromXCell, toXCell) -> {
+            stripSegments[strip] = new SegmentBuffer();
+            marchingSquares().isoLines(levels, fromXCell, toXCell, stripSegments[strip]::add);
+        });
+        SegmentBuffer segments = stripSegments[0];
+        range(1, stripSegments.length).forEach(strip -> segments.addAll(stripSegments[strip]));
+        segments.sortByLevel(levels.length);
+        return segments;
+    }
+
+    private MarchingSquares marchingSquares() {
+        return new MarchingSquares(xMin, yMin, xCell, yCell, xVertices, yVertices, values, pyramid, mask);
     }
 
-    private Stream<LineEnds> isoLinesOfOneLevel(double isoLevel, List<Grid2DCell> cells) {
-        return cells.stream().flatMap(cell -> cell.toLineEnds(isoLevel).stream());
+    private int numberOfStrips() {
+        return RowStrips.numberOfStrips(xVertices - 1, parallelism, executor);
     }
 
     private Function2DValue f2dFromVertexIndexes(int xIndex, int yIndex) {
-        return Function2DValue.of(xMin + xIndex * xCell, yMin + yIndex * yCell, values[xIndex][yIndex]);
+        return Function2DValue.of(xMin + xIndex * xCell, yMin + yIndex * yCell, values[xIndex * yVertices + yIndex]);
     }
 
     private List<Double> getScaledLevelsForColors(List<Double> isoLevels, double rangeMin, double rangeMax) {
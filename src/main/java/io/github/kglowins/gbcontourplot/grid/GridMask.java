@@ -0,0 +1,60 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import io.github.kglowins.gbcontourplot.graphics.RegionPredicate;
+
+import java.util.BitSet;
+
+// The cells of a grid that touch a region, i.e. have a corner inside it, and the vertices these cells need.
+// The other cells are neither interpolated nor contoured.
+final class GridMask {
+
+    private final int yVertices;
+    // indexed by xVertex * yVertices + yVertex of the cell's bottom left vertex
+    private final BitSet cells;
+    private final BitSet vertices;
+
+    GridMask(RegionPredicate region, double xMin, double yMin, double xCell, double yCell,
+             int xVertices, int yVertices) {
+        this.yVertices = yVertices;
+        BitSet inside = new BitSet(xVertices * yVertices);
+        for (int xVertex = 0; xVertex < xVertices; xVertex++) {
+            for (int yVertex = 0; yVertex < yVertices; yVertex++) {
+                if (region.contains(xMin + xCell * xVertex, yMin + yCell * yVertex)) {
+                    inside.set(xVertex * yVertices + yVertex);
+                }
+            }
+        }
+        cells = new BitSet(xVertices * yVertices);
+        vertices = new BitSet(xVertices * yVertices);
+        for (int xVertex = 0; xVertex < xVertices - 1; xVertex++) {
+            for (int yVertex = 0; yVertex < yVertices - 1; yVertex++) {
+                int vertex = xVertex * yVertices + yVertex;
+                if (inside.get(vertex) || inside.get(vertex + 1)
+                    || inside.get(vertex + yVertices) || inside.get(vertex + yVertices + 1)) {
+                    cells.set(vertex);
+                    vertices.set(vertex, vertex + 2);
+                    vertices.set(vertex + yVertices, vertex + yVertices + 2);
+                }
+            }
+        }
+    }
+
+    boolean isCellInside(int xVertex, int yVertex) {
+        return cells.get(xVertex * yVertices + yVertex);
+    }
+
+    boolean isVertexUsed(int vertex) {
+        return vertices.get(vertex);
+    }
+
+    int usedVertexCount() {
+        return vertices.cardinality();
+    }
+
+    // values of unused vertices become NaN, so that statistics only cover the region
+    void clearUnusedVertices(double[] values) {
+        for (int vertex = vertices.nextClearBit(0); vertex < values.length; vertex = vertices.nextClearBit(vertex + 1)) {
+            values[vertex] = Double.NaN;
+        }
+    }
+}
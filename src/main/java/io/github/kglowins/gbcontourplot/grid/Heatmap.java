@@ -0,0 +1,161 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import io.github.kglowins.gbcontourplot.colormappers.ColorMapper;
+import io.github.kglowins.gbcontourplot.graphics.RegionPredicate;
+import lombok.extern.slf4j.Slf4j;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.stream.IntStream.range;
+
+// Colours a raster pixel by pixel instead of filling polygons: the centre of every pixel takes the bilinear value
+// of the grid and either the colour of its iso band, as toIsoBands colours it, or the colour the mapper gives the
+// value itself. Pixels outside the grid, its mask or the region and pixels next to a NaN vertex stay transparent.
+@Slf4j
+public class Heatmap {
+
+    // steps of the continuous colour scale, the mapper is not called per pixel
+    private static final int CONTINUOUS_COLORS = 1024;
+    private static final int TRANSPARENT = 0;
+
+    private final Grid2DValues grid;
+    // null for the continuous colour scale
+    private final double[] bandsLevels;
+    // ARGB per band, or per step of the continuous colour scale
+    private final int[] colors;
+    private final double rangeMin;
+    private final double rangeMax;
+
+    private RegionPredicate region;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private Executor executor;
+
+    private Heatmap(Grid2DValues grid, double[] bandsLevels, int[] colors, double rangeMin, double rangeMax) {
+        if (isNull(grid)) {
+            throw new IllegalArgumentException("grid is null");
+        }
+        this.grid = grid;
+        this.bandsLevels = bandsLevels;
+        this.colors = colors;
+        this.rangeMin = rangeMin;
+        this.rangeMax = rangeMax;
+    }
+
+    public static Heatmap ofIsoBands(Grid2DValues grid, List<Double> isoLevels, ColorMapper colorMapper) {
+        return ofIsoBands(grid, isoLevels, colorMapper, grid.getFMin(), grid.getFMax());
+    }
+
+    public static Heatmap ofIsoBands(Grid2DValues grid, List<Double> isoLevels, ColorMapper colorMapper,
+                                     double rangeMin, double rangeMax) {
+        Grid2DValues.validateColorRange(isoLevels, rangeMin, rangeMax);
+        int[] colors = grid.isoBandColors(isoLevels, colorMapper, rangeMin, rangeMax).stream()
+            .mapToInt(Color::getRGB)
+            .toArray();
+        return new Heatmap(grid, Grid2DValues.bandsLevels(isoLevels), colors, rangeMin, rangeMax);
+    }
+
+    public static Heatmap continuous(Grid2DValues grid, ColorMapper colorMapper) {
+        return continuous(grid, colorMapper, grid.getFMin(), grid.getFMax());
+    }
+
+    // values below rangeMin or above rangeMax take the colour of the nearer end of the scale
+    public static Heatmap continuous(Grid2DValues grid, ColorMapper colorMapper, double rangeMin, double rangeMax) {
+        if (rangeMax < rangeMin) {
+            throw new IllegalArgumentException("rangeMax must be > rangeMin");
+        }
+        int[] colors = range(0, CONTINUOUS_COLORS)
+            .map(step -> colorMapper.map((double) step / (CONTINUOUS_COLORS - 1)).getRGB())
+            .toArray();
+        return new Heatmap(grid, null, colors, rangeMin, rangeMax);
+    }
+
+    public Heatmap withRegion(RegionPredicate region) {
+        this.region = region;
+        return this;
+    }
+
+    public Heatmap withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism < 1");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public Heatmap withExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    // a width x height image of [xFrom, xTo] x [yFrom, yTo], row 0 at yTo; strips of rows are coloured in parallel
+    public BufferedImage toImage(int width, int height, double xFrom, double xTo, double yFrom, double yTo) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("width < 1 or height < 1");
+        }
+        long startMillis = Instant.now().toEpochMilli();
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] argb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        double[] xs = range(0, width).mapToDouble(column -> xFrom + (column + 0.5) / width * (xTo - xFrom)).toArray();
+        RowStrips.forEach(height, parallelism, executor, (strip, fromRow, toRow) -> {
+            for (int row = fromRow; row < toRow; row++) {
+                double y = yTo - (row + 0.5) / height * (yTo - yFrom);
+                for (int column = 0; column < width; column++) {
+                    argb[row * width + column] = colorAt(xs[column], y);
+                }
+            }
+        });
+
+        log.debug("toImage of {} x {} pixels took {} millis.", width, height,
+            Instant.now().toEpochMilli() - startMillis);
+        return image;
+    }
+
+    private int colorAt(double x, double y) {
+        if (nonNull(region) && !region.contains(x, y)) {
+            return TRANSPARENT;
+        }
+        double value = grid.interpolateValue(x, y);
+        if (Double.isNaN(value)) {
+            return TRANSPARENT;
+        }
+        return isNull(bandsLevels) ? continuousColor(value) : bandColor(value);
+    }
+
+    private int continuousColor(double value) {
+        double scaled = rangeMax > rangeMin ? (value - rangeMin) / (rangeMax - rangeMin) : 0;
+        int step = (int) Math.round(scaled * (CONTINUOUS_COLORS - 1));
+        return colors[Math.max(0, Math.min(CONTINUOUS_COLORS - 1, step))];
+    }
+
+    // band b covers [bandsLevels[b], bandsLevels[b + 1]) like in MarchingSquares, the last one with its top
+    private int bandColor(double value) {
+        int numberOfBands = bandsLevels.length - 1;
+        int band = firstLevelAbove(value) - 1;
+        if (band == numberOfBands && value == bandsLevels[numberOfBands]) {
+            band--;
+        }
+        return band >= 0 && band < numberOfBands ? colors[band] : TRANSPARENT;
+    }
+
+    private int firstLevelAbove(double value) {
+        int from = 0;
+        int to = bandsLevels.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (bandsLevels[middle] <= value) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+}
@@ -0,0 +1,6 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+public enum IndexType {
+    KD_TREE,
+    BUCKET_GRID
+}
@@ -0,0 +1,100 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.List;
+
+import static java.util.Objects.nonNull;
+import static java.util.stream.IntStream.range;
+
+// Inverse distance weights of a fixed point layout on a fixed grid, stored as CSR rows (one row per grid vertex)
+@Slf4j
+public class InterpolationWeights {
+
+    private final double xMin;
+    private final double yMin;
+    private final double xCell;
+    private final double yCell;
+    @Getter
+    private final int xCells;
+    @Getter
+    private final int yCells;
+
+    private final double[] layoutX;
+    private final double[] layoutY;
+
+    private final int[] rowStarts;
+    private final int[] pointIds;
+    private final double[] weights;
+    private final double[] weightSums;
+    // null if every vertex has weights
+    private final GridMask mask;
+    // null without a symmetry, else it fills in the vertices without weights from the others
+    private final SymmetryFill symmetryFill;
+
+    InterpolationWeights(double xMin, double yMin, double xCell, double yCell, int xCells, int yCells,
+                         double[] layoutX, double[] layoutY,
+                         int[] rowStarts, int[] pointIds, double[] weights, double[] weightSums, GridMask mask,
+                         SymmetryFill symmetryFill) {
+        this.xMin = xMin;
+        this.yMin = yMin;
+        this.xCell = xCell;
+        this.yCell = yCell;
+        this.xCells = xCells;
+        this.yCells = yCells;
+        this.layoutX = layoutX;
+        this.layoutY = layoutY;
+        this.rowStarts = rowStarts;
+        this.pointIds = pointIds;
+        this.weights = weights;
+        this.weightSums = weightSums;
+        this.mask = mask;
+        this.symmetryFill = symmetryFill;
+    }
+
+    public int getNumberOfDataPoints() {
+        return layoutX.length;
+    }
+
+    public Grid2DValues apply(List<Function2DValue> dataPoints) {
+        if (dataPoints.size() != layoutX.length) {
+            throw new IllegalArgumentException("dataPoints.size() != number of points in the compiled layout");
+        }
+        range(0, layoutX.length).forEach(id -> {
+            Function2DValue dataPoint = dataPoints.get(id);
+            if (dataPoint.x() != layoutX[id] || dataPoint.y() != layoutY[id]) {
+                throw new IllegalArgumentException("dataPoints layout differs from the compiled layout at " + dataPoint);
+            }
+        });
+        return apply(dataPoints.stream().mapToDouble(Function2DValue::f).toArray());
+    }
+
+    public Grid2DValues apply(double[] f) {
+        if (f.length != layoutX.length) {
+            throw new IllegalArgumentException("f.length != number of points in the compiled layout");
+        }
+        long startMillis = Instant.now().toEpochMilli();
+
+        int yVertices = 1 + yCells;
+        double[] values = new double[(1 + xCells) * yVertices];
+        range(0, values.length).forEach(vertex -> {
+            double nominator = 0;
+            for (int i = rowStarts[vertex]; i < rowStarts[vertex + 1]; i++) {
+                nominator += weights[i] * f[pointIds[i]];
+            }
+            values[vertex] = nominator / weightSums[vertex];
+        });
+        if (nonNull(symmetryFill)) {
+            symmetryFill.fill(values);
+            if (nonNull(mask)) {
+                mask.clearUnusedVertices(values);
+            }
+        }
+
+        long finishMillis = Instant.now().toEpochMilli();
+        log.debug("apply took {} millis.", finishMillis - startMillis);
+        return new Grid2DValues(xMin, yMin, xCell, yCell, 1 + xCells, yVertices, values, false).withMask(mask);
+    }
+}
@@ -0,0 +1,299 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import java.util.Arrays;
+
+import static java.util.stream.IntStream.range;
+
+// Marching squares case tables. A point is either a corner (TL, TR, BR, BL) or a crossing "A>B@lo" / "A>B@hi"
+// of the lower / upper level on the edge between corners A and B, interpolated from A towards B. The direction
+// is kept as it affects the interpolated coordinate in the last bits.
+final class IsoCases {
+
+    static final int TOP_LEFT = 0;
+    static final int TOP_RIGHT = 1;
+    static final int BOTTOM_RIGHT = 2;
+    static final int BOTTOM_LEFT = 3;
+
+    private static final String[] CORNERS = {"TL", "TR", "BR", "BL"};
+
+    // indexed by 8 * TL + 4 * TR + 2 * BR + BL, where a bit is 1 if the corner value is above the level
+    // (cases 5 and 10 are swapped beforehand if the center value is below the level)
+    private static final String[] ISO_LINE_CASES = {
+        "", // 0: 0000
+        "TL>BL BL>BR", // 1: 0001
+        "TR>BR BL>BR", // 2: 0010
+        "TL>BL TR>BR", // 3: 0011
+        "TL>TR TR>BR", // 4: 0100
+        "TR>BR BL>BR | TL>BL TL>TR", // 5: 0101
+        "TL>TR BL>BR", // 6: 0110
+        "TL>BL TL>TR", // 7: 0111
+        "TL>BL TL>TR", // 8: 1000
+        "TL>TR BL>BR", // 9: 1001
+        "TL>BL BL>BR | TL>TR TR>BR", // 10: 1010
+        "TL>TR TR>BR", // 11: 1011
+        "TL>BL TR>BR", // 12: 1100
+        "TR>BR BL>BR", // 13: 1101
+        "TL>BL BL>BR", // 14: 1110
+        "" // 15: 1111
+    };
+
+    // indexed by 27 * TL + 9 * TR + 3 * BR + BL, where a digit is 0 below, 1 inside and 2 above the band;
+    // saddles list three alternatives for the center value below / inside / above the band
+    private static final String[] ISO_BAND_CASES = {
+        "", // 0: 0000
+        "TL>BL@lo BR>BL@lo BL", // 1: 0001
+        "TL>BL@lo BR>BL@lo BR>BL@hi TL>BL@hi", // 2: 0002
+        "TR>BR@lo BR BL>BR@lo", // 3: 0010
+        "TL>BL@lo TR>BR@lo BR BL", // 4: 0011
+        "TL>BL@lo BR>TR@lo BR BL>BR@hi TL>BL@hi", // 5: 0012
+        "TR>BR@lo TR>BR@hi BR>BL@hi BR>BL@lo", // 6: 0020
+        "TL>BL@lo TR>BR@lo TR>BR@hi BL>BR@hi BL", // 7: 0021
+        "TL>BL@lo TR>BR@lo TR>BR@hi TL>BL@hi", // 8: 0022
+        "TL>TR@lo TR TR>BR@lo", // 9: 0100
+        // 10: 0101, saddle
+        "TL>BL@lo BR>BL@lo BL | TL>TR@lo TR TR>BR@lo"
+            + " ; TL>BL@lo TL>TR@lo TR TR>BR@lo BL>BR@lo BL"
+            + " ; TL>BL@lo BR>BL@lo BL | TL>TR@lo TR TR>BR@lo",
+        // 11: 0102, saddle
+        "TL>TR@lo TR TR>BR@lo | TL>BL@lo BR>BL@lo BR>BL@hi TL>BL@hi"
+            + " ; TL>TR@lo TR TR>BR@lo BL>BR@lo BL>BR@hi TL>BL@hi TL>BL@lo"
+            + " ; TL>TR@lo TR TR>BR@lo | TL>BL@lo BR>BL@lo BR>BL@hi TL>BL@hi",
+        "TL>TR@lo TR BR BL>BR@lo", // 12: 0110
+        "TL>TR@lo TR BR BL BL>TL@lo", // 13: 0111
+        "TL>BL@lo TL>TR@lo TR BR BL>BR@hi TL>BL@hi", // 14: 0112
+        "TL>TR@lo TR BR>TR@hi BL>BR@hi BL>BR@lo", // 15: 0120
+        "TL>BL@lo TL>TR@lo TR TR>BR@hi BL>BR@hi BL", // 16: 0121
+        "TL>TR@lo TR TR>BR@hi TL>BL@hi TL>BL@lo", // 17: 0122
+        "TR>TL@lo TR>TL@hi TR>BR@hi TR>BR@lo", // 18: 0200
+        // 19: 0201, saddle
+        "TL>BL@lo BR>BL@lo BL | TR>TL@lo TR>TL@hi TR>BR@hi TR>BR@lo"
+            + " ; TL>TR@lo TL>TR@hi TR>BR@hi TR>BR@lo BL>BR@lo BL TL>BL@lo"
+            + " ; TL>BL@lo BR>BL@lo BL | TR>TL@lo TR>TL@hi TR>BR@hi TR>BR@lo",
+        // 20: 0202, saddle
+        "TL>BL@lo BR>BL@lo BR>BL@hi TL>BL@hi | TR>TL@lo TR>TL@hi TR>BR@hi TR>BR@lo"
+            + " ; TL>BL@lo TL>TR@lo TL>TR@hi TR>BR@hi TR>BR@lo BL>BR@lo BL>BR@hi TL>BL@hi"
+            + " ; TR>TL@lo TR>TL@hi TL>BL@hi TL>BL@lo | TR>BR@hi TR>BR@lo BR>BL@lo BR>BL@hi",
+        "TL>TR@lo TL>TR@hi TR>BR@hi BR BL>BR@lo", // 21: 0210
+        "TL>BL@lo TL>TR@lo TL>TR@hi TR>BR@hi BR BL", // 22: 0211
+        // 23: 0212, saddle
+        "TR>BR@hi BR BL>BR@hi | TR>TL@lo TR>TL@hi TL>BL@hi TL>BL@lo"
+            + " ; TL>TR@lo TL>TR@hi TR>BR@hi BR BL>BR@hi TL>BL@hi TL>BL@lo"
+            + " ; TR>BR@hi BR BL>BR@hi | TR>TL@lo TR>TL@hi TL>BL@hi TL>BL@lo",
+        "TL>TR@lo TL>TR@hi BL>BR@hi BL>BR@lo", // 24: 0220
+        "TL>TR@lo TL>TR@hi BL>BR@hi BL TL>BL@lo", // 25: 0221
+        "TR>TL@lo TR>TL@hi TL>BL@hi TL>BL@lo", // 26: 0222
+        "TL TL>TR@lo TL>BL@lo", // 27: 1000
+        "TL TL>TR@lo BL>BR@lo BL", // 28: 1001
+        "TL TL>TR@lo BL>BR@lo BL>BR@hi TL>BL@hi", // 29: 1002
+        // 30: 1010, saddle
+        "TL TL>TR@lo TL>BL@lo | TR>BR@lo BR BL>BR@lo"
+            + " ; TL TL>TR@lo TR>BR@lo BR BL>BR@lo TL>BL@lo"
+            + " ; TL TL>TR@lo TL>BL@lo | TR>BR@lo BR BL>BR@lo",
+        "TL TL>TR@lo BR>TR@lo BR BL", // 31: 1011
+        "TL TL>TR@lo TR>BR@lo BR BL>BR@hi TL>BL@hi", // 32: 1012
+        // 33: 1020, saddle
+        "TL TL>TR@lo TL>BL@lo | TR>BR@lo TR>BR@hi BR>BL@hi BR>BL@lo"
+            + " ; TL TL>TR@lo TR>BR@lo TR>BR@hi BL>BR@hi BL>BR@lo TL>BL@lo"
+            + " ; TL TL>TR@lo TL>BL@lo | TR>BR@lo TR>BR@hi BR>BL@hi BR>BL@lo",
+        "TL TL>TR@lo TR>BR@lo TR>BR@hi BL>BR@hi BL", // 34: 1021
+        "TL TL>TR@lo BR>TR@lo BR>TR@hi BL>TL@hi", // 35: 1022
+        "TL TR TR>BR@lo TL>BL@lo", // 36: 1100
+        "TL TR BR>TR@lo BL>BR@lo BL", // 37: 1101
+        "TL TR TR>BR@lo BL>BR@lo BL>BR@hi TL>BL@hi", // 38: 1102
+        "TL TR BR BL>BR@lo BL>TL@lo", // 39: 1110
+        "TL TR BR BL", // 40: 1111
+        "TL TR BR BL>BR@hi BL>TL@hi", // 41: 1112
+        "TL TR TR>BR@hi BL>BR@hi BL>BR@lo TL>BL@lo", // 42: 1120
+        "TL TR BR>TR@hi BL>BR@hi BL", // 43: 1121
+        "TL TR TR>BR@hi TL>BL@hi", // 44: 1122
+        "TL TL>TR@hi BR>TR@hi BR>TR@lo BL>TL@lo", // 45: 1200
+        "TL TL>TR@hi TR>BR@hi TR>BR@lo BL>BR@lo BL", // 46: 1201
+        // 47: 1202, saddle
+        "TL TL>TR@hi TL>BL@hi | TR>BR@hi TR>BR@lo BR>BL@lo BR>BL@hi"
+            + " ; TL TL>TR@hi TR>BR@hi TR>BR@lo BL>BR@lo BL>BR@hi TL>BL@hi"
+            + " ; TL TL>TR@hi TL>BL@hi | TR>BR@hi TR>BR@lo BR>BL@lo BR>BL@hi",
+        "TL TL>TR@hi TR>BR@hi BR BL>BR@lo TL>BL@lo", // 48: 1210
+        "TL TL>TR@hi BR>TR@hi BR BL", // 49: 1211
+        // 50: 1212, saddle
+        "TL TL>TR@hi TL>BL@hi | TR>BR@hi BR BL>BR@hi"
+            + " ; TL TL>TR@hi TR>BR@hi BR BL>BR@hi TL>BL@hi"
+            + " ; TL TL>TR@hi TL>BL@hi | TR>BR@hi BR BL>BR@hi",
+        "TL TL>TR@hi BL>BR@hi BL>BR@lo TL>BL@lo", // 51: 1220
+        "TL TL>TR@hi BL>BR@hi BL", // 52: 1221
+        "TL TL>TR@hi TL>BL@hi", // 53: 1222
+        "TR>TL@hi TR>TL@lo TL>BL@lo TL>BL@hi", // 54: 2000
+        "TL>TR@hi TL>TR@lo BL>BR@lo BL TL>BL@hi", // 55: 2001
+        "TL>TR@hi TL>TR@lo BL>BR@lo BL>BR@hi", // 56: 2002
+        // 57: 2010, saddle
+        "TR>BR@lo BR BL>BR@lo | TR>TL@hi TR>TL@lo TL>BL@lo TL>BL@hi"
+            + " ; TL>TR@hi TL>TR@lo TR>BR@lo BR BL>BR@lo TL>BL@lo TL>BL@hi"
+            + " ; TR>BR@lo BR BL>BR@lo | TR>TL@hi TR>TL@lo TL>BL@lo TL>BL@hi",
+        "TL>BL@hi TL>TR@hi TL>TR@lo TR>BR@lo BR BL", // 58: 2011
+        "TL>TR@hi TL>TR@lo TR>BR@lo BR BL>BR@hi", // 59: 2012
+        // 60: 2020, saddle
+        "TR>TL@hi TR>TL@lo TL>BL@lo TL>BL@hi | TR>BR@lo TR>BR@hi BR>BL@hi BR>BL@lo"
+            + " ; TL>BL@hi TL>TR@hi TL>TR@lo TR>BR@lo TR>BR@hi BL>BR@hi BL>BR@lo TL>BL@lo"
+            + " ; TL>BL@hi BR>BL@hi BR>BL@lo TL>BL@lo | TR>TL@hi TR>TL@lo TR>BR@lo TR>BR@hi",
+        // 61: 2021, saddle
+        "TL>BL@hi BR>BL@hi BL | TR>TL@hi TR>TL@lo TR>BR@lo TR>BR@hi"
+            + " ; TL>TR@hi TL>TR@lo TR>BR@lo TR>BR@hi BL>BR@hi BL TL>BL@hi"
+            + " ; TL>BL@hi BR>BL@hi BL | TR>TL@hi TR>TL@lo TR>BR@lo TR>BR@hi",
+        "TR>TL@hi TR>TL@lo TR>BR@lo TR>BR@hi", // 62: 2022
+        "TL>TR@hi TR TR>BR@lo TL>BL@lo TL>BL@hi", // 63: 2100
+        "TL>BL@hi TL>TR@hi TR TR>BR@lo BL>BR@lo BL", // 64: 2101
+        "TL>TR@hi TR BR>TR@lo BL>BR@lo BL>BR@hi", // 65: 2102
+        "TL>BL@hi TL>TR@hi TR BR BL>BR@lo TL>BL@lo", // 66: 2110
+        "TL>TR@hi TR BR BL BL>TL@hi", // 67: 2111
+        "TL>TR@hi TR BR BL>BR@hi", // 68: 2112
+        // 69: 2120, saddle
+        "TL>TR@hi TR TR>BR@hi | TL>BL@hi BR>BL@hi BR>BL@lo TL>BL@lo"
+            + " ; TL>TR@hi TR TR>BR@hi BL>BR@hi BL>BR@lo TL>BL@lo TL>BL@hi"
+            + " ; TL>TR@hi TR TR>BR@hi | TL>BL@hi BR>BL@hi BR>BL@lo TL>BL@lo",
+        // 70: 2121, saddle
+        "TL>BL@hi BR>BL@hi BL | TL>TR@hi TR TR>BR@hi"
+            + " ; TL>BL@hi TL>TR@hi TR TR>BR@hi BL>BR@hi BL"
+            + " ; TL>BL@hi BR>BL@hi BL | TL>TR@hi TR TR>BR@hi",
+        "TL>TR@hi TR TR>BR@hi", // 71: 2122
+        "TL>BL@hi TR>BR@hi TR>BR@lo TL>BL@lo", // 72: 2200
+        "TL>BL@hi TR>BR@hi TR>BR@lo BL>BR@lo BL", // 73: 2201
+        "TR>BR@hi TR>BR@lo BR>BL@lo BR>BL@hi", // 74: 2202
+        "TL>BL@hi BR>TR@hi BR BL>BR@lo TL>BL@lo", // 75: 2210
+        "TL>BL@hi TR>BR@hi BR BL", // 76: 2211
+        "TR>BR@hi BR BL>BR@hi", // 77: 2212
+        "TL>BL@hi BR>BL@hi BR>BL@lo TL>BL@lo", // 78: 2220
+        "TL>BL@hi BR>BL@hi BL", // 79: 2221
+        "" // 80: 2222
+    };
+
+    private static final int[][][] LINE_SEGMENTS = Arrays.stream(ISO_LINE_CASES)
+        .map(IsoCases::parsePolygons)
+        .toArray(int[][][]::new);
+
+    private static final int[][][][] BAND_POLYGONS = Arrays.stream(ISO_BAND_CASES)
+        .map(IsoCases::parseAlternatives)
+        .toArray(int[][][][]::new);
+
+    private static final double[] MODEL_CORNER_X = {0, 1, 1, 0};
+    private static final double[] MODEL_CORNER_Y = {1, 1, 0, 0};
+    private static final double[] MODEL_DIGIT_VALUES = {0, 1.5, 3};
+
+    // orientation of every band polygon, found on a model cell: unit square with corner values 0, 1.5 and 3 for
+    // the digits 0, 1 and 2, and the levels at 1 and 2
+    private static final boolean[][][] BAND_COUNTER_CLOCKWISE = range(0, BAND_POLYGONS.length)
+        .mapToObj(IsoCases::modelOrientations)
+        .toArray(boolean[][][]::new);
+
+    private IsoCases() {
+    }
+
+    static int[][] lineSegments(int caseIndex) {
+        return LINE_SEGMENTS[caseIndex];
+    }
+
+    static boolean isBandSaddle(int caseIndex) {
+        return BAND_POLYGONS[caseIndex].length > 1;
+    }
+
+    static int[][] bandPolygons(int caseIndex, int centerBit) {
+        int[][][] alternatives = BAND_POLYGONS[caseIndex];
+        return alternatives[alternatives.length > 1 ? centerBit : 0];
+    }
+
+    static boolean isBandPolygonCounterClockwise(int caseIndex, int centerBit, int polygon) {
+        boolean[][] alternatives = BAND_COUNTER_CLOCKWISE[caseIndex];
+        return alternatives[alternatives.length > 1 ? centerBit : 0][polygon];
+    }
+
+    static boolean isCorner(int point) {
+        return point < 4;
+    }
+
+    // for crossings only
+    static int fromCorner(int point) {
+        return (point - 4) >> 3;
+    }
+
+    static int toCorner(int point) {
+        return ((point - 4) >> 1) & 3;
+    }
+
+    static boolean isUpperLevel(int point) {
+        return ((point - 4) & 1) == 1;
+    }
+
+    static boolean isHorizontalEdge(int point) {
+        return fromCorner(point) >> 1 == toCorner(point) >> 1;
+    }
+
+    private static boolean[][] modelOrientations(int caseIndex) {
+        int[] digits = {caseIndex / 27, caseIndex / 9 % 3, caseIndex / 3 % 3, caseIndex % 3};
+        return Arrays.stream(BAND_POLYGONS[caseIndex])
+            .map(alternative -> {
+                boolean[] counterClockwise = new boolean[alternative.length];
+                range(0, alternative.length).forEach(polygon ->
+                    counterClockwise[polygon] = modelSignedArea(alternative[polygon], digits) > 0);
+                return counterClockwise;
+            })
+            .toArray(boolean[][]::new);
+    }
+
+    private static double modelSignedArea(int[] polygon, int[] digits) {
+        double[] xs = new double[polygon.length];
+        double[] ys = new double[polygon.length];
+        range(0, polygon.length).forEach(index -> {
+            int point = polygon[index];
+            if (isCorner(point)) {
+                xs[index] = MODEL_CORNER_X[point];
+                ys[index] = MODEL_CORNER_Y[point];
+                return;
+            }
+            int from = fromCorner(point);
+            int to = toCorner(point);
+            double fromValue = MODEL_DIGIT_VALUES[digits[from]];
+            double toValue = MODEL_DIGIT_VALUES[digits[to]];
+            double t = ((isUpperLevel(point) ? 2 : 1) - fromValue) / (toValue - fromValue);
+            xs[index] = MODEL_CORNER_X[from] + t * (MODEL_CORNER_X[to] - MODEL_CORNER_X[from]);
+            ys[index] = MODEL_CORNER_Y[from] + t * (MODEL_CORNER_Y[to] - MODEL_CORNER_Y[from]);
+        });
+        return range(0, polygon.length)
+            .mapToDouble(index -> {
+                int next = (index + 1) % polygon.length;
+                return xs[index] * ys[next] - xs[next] * ys[index];
+            })
+            .sum() / 2;
+    }
+
+    private static int[][][] parseAlternatives(String isoCase) {
+        return Arrays.stream(isoCase.split(";"))
+            .map(IsoCases::parsePolygons)
+            .toArray(int[][][]::new);
+    }
+
+    private static int[][] parsePolygons(String polygons) {
+        if (polygons.isBlank()) {
+            return new int[0][];
+        }
+        return Arrays.stream(polygons.split("\\|"))
+            .map(polygon -> Arrays.stream(polygon.trim().split(" "))
+                .mapToInt(IsoCases::parsePoint)
+                .toArray())
+            .toArray(int[][]::new);
+    }
+
+    private static int parsePoint(String point) {
+        if (!point.contains(">")) {
+            return corner(point);
+        }
+        int from = corner(point.substring(0, 2));
+        int to = corner(point.substring(3, 5));
+        int level = point.endsWith("@hi") ? 1 : 0;
+        return 4 + ((from << 2 | to) << 1 | level);
+    }
+
+    private static int corner(String name) {
+        return range(0, CORNERS.length)
+            .filter(corner -> CORNERS[corner].equals(name))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown corner " + name));
+    }
+}
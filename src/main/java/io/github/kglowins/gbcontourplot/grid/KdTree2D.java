@@ -0,0 +1,95 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+// Implicit 2D k-d tree: the median of every [lo, hi) range is its node, x and y splits alternate by depth
+final class KdTree2D implements NeighbourIndex2D {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] ids;
+
+    KdTree2D(double[] x, double[] y, int[] pointIds) {
+        int size = pointIds.length;
+        ids = pointIds.clone();
+        build(x, y, 0, size, true);
+
+        xs = new double[size];
+        ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = x[ids[i]];
+            ys[i] = y[ids[i]];
+        }
+    }
+
+    @Override
+    public void nearest(double x, double y, NearestNeighbours neighbours) {
+        neighbours.clear();
+        search(0, ids.length, true, x, y, neighbours);
+    }
+
+    private void search(int lo, int hi, boolean splitOnX, double x, double y, NearestNeighbours neighbours) {
+        if (lo >= hi) {
+            return;
+        }
+        int median = (lo + hi) >>> 1;
+        double dx = xs[median] - x;
+        double dy = ys[median] - y;
+        neighbours.offer(ids[median], dx * dx + dy * dy);
+
+        double diff = splitOnX ? -dx : -dy;
+        if (diff < 0) {
+            search(lo, median, !splitOnX, x, y, neighbours);
+            if (diff * diff <= neighbours.worstDistanceSq()) {
+                search(median + 1, hi, !splitOnX, x, y, neighbours);
+            }
+        } else {
+            search(median + 1, hi, !splitOnX, x, y, neighbours);
+            if (diff * diff <= neighbours.worstDistanceSq()) {
+                search(lo, median, !splitOnX, x, y, neighbours);
+            }
+        }
+    }
+
+    private void build(double[] x, double[] y, int lo, int hi, boolean splitOnX) {
+        if (hi - lo < 2) {
+            return;
+        }
+        int median = (lo + hi) >>> 1;
+        select(splitOnX ? x : y, lo, hi - 1, median);
+        build(x, y, lo, median, !splitOnX);
+        build(x, y, median + 1, hi, !splitOnX);
+    }
+
+    private void select(double[] coords, int left, int right, int k) {
+        while (left < right) {
+            int pivot = partition(coords, left, right, (left + right) >>> 1);
+            if (pivot == k) {
+                return;
+            } else if (k < pivot) {
+                right = pivot - 1;
+            } else {
+                left = pivot + 1;
+            }
+        }
+    }
+
+    private int partition(double[] coords, int left, int right, int pivotIndex) {
+        double pivotCoord = coords[ids[pivotIndex]];
+        int pivotId = ids[pivotIndex];
+        swap(pivotIndex, right);
+        int store = left;
+        for (int i = left; i < right; i++) {
+            double coord = coords[ids[i]];
+            if (coord < pivotCoord || (coord == pivotCoord && ids[i] < pivotId)) {
+                swap(store++, i);
+            }
+        }
+        swap(right, store);
+        return store;
+    }
+
+    private void swap(int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+}
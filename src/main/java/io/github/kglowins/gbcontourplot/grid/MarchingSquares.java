@@ -0,0 +1,398 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import java.util.Arrays;
+
+import static io.github.kglowins.gbcontourplot.grid.IsoCases.BOTTOM_LEFT;
+import static io.github.kglowins.gbcontourplot.grid.IsoCases.BOTTOM_RIGHT;
+import static io.github.kglowins.gbcontourplot.grid.IsoCases.TOP_LEFT;
+import static io.github.kglowins.gbcontourplot.grid.IsoCases.TOP_RIGHT;
+import static java.util.Comparator.comparingDouble;
+import static java.util.stream.IntStream.range;
+
+// Contours cells straight from the flat values of Grid2DValues, producing the same geometry as Grid2DCell
+final class MarchingSquares {
+
+    // receives the segments together with the keys of the edges their ends lie on, e.g. SegmentBuffer::add
+    @FunctionalInterface
+    interface SegmentSink {
+        void segment(int level, double x1, double y1, long key1, double x2, double y2, long key2);
+    }
+
+    // receives the polygons together with their orientation and point keys, e.g. PolygonBuffer::addPolygon;
+    // the arrays are reused for the next polygon
+    @FunctionalInterface
+    interface PolygonSink {
+        void polygon(int band, boolean counterClockwise, double[] xs, double[] ys, long[] keys, int n);
+    }
+
+    // a band polygon of a single cell has at most 8 points
+    private static final int MAX_POLYGON_POINTS = 8;
+
+    private final double xMin;
+    private final double yMin;
+    private final double xCell;
+    private final double yCell;
+    private final int xVertices;
+    private final int yVertices;
+    private final double[] values;
+    // null if cells are not culled by blocks
+    private final BlockPyramid pyramid;
+    // null if every cell is contoured
+    private final GridMask mask;
+
+    // corners of the current cell, indexed by IsoCases.TOP_LEFT, ..., IsoCases.BOTTOM_LEFT
+    private final double[] cornerX = new double[4];
+    private final double[] cornerY = new double[4];
+    private final double[] cornerF = new double[4];
+
+    // corner range of the current cell, NaN corners aside
+    private double cellMin;
+    private double cellMax;
+    private boolean cellHasNaN;
+
+    private int cellXVertex;
+    private int cellYVertex;
+
+    private double pointX;
+    private double pointY;
+
+    private final double[] polygonX = new double[MAX_POLYGON_POINTS];
+    private final double[] polygonY = new double[MAX_POLYGON_POINTS];
+    private final long[] polygonKeys = new long[MAX_POLYGON_POINTS];
+
+    MarchingSquares(double xMin, double yMin, double xCell, double yCell,
+                    int xVertices, int yVertices, double[] values, BlockPyramid pyramid, GridMask mask) {
+        this.xMin = xMin;
+        this.yMin = yMin;
+        this.xCell = xCell;
+        this.yCell = yCell;
+        this.xVertices = xVertices;
+        this.yVertices = yVertices;
+        this.values = values;
+        this.pyramid = pyramid;
+        this.mask = mask;
+    }
+
+    // Visits every cell of the columns [fromXCell, toXCell) once and contours only the levels within its corner
+    // range, that is min <= level < max, found by binary search. Segments are tagged with the index in isoLevels;
+    // SegmentBuffer.sortByLevel then orders them like contouring one level after another.
+    void isoLines(double[] isoLevels, int fromXCell, int toXCell, SegmentSink segments) {
+        int[] levelOrder = range(0, isoLevels.length).boxed()
+            .sorted(comparingDouble(levelIndex -> isoLevels[levelIndex]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+        double[] sortedLevels = Arrays.stream(levelOrder).mapToDouble(levelIndex -> isoLevels[levelIndex]).toArray();
+
+        for (int xVertex = fromXCell; xVertex < toXCell; xVertex++) {
+            for (int yVertex = 0; yVertex < yVertices - 1; yVertex++) {
+                int culledUntil = endOfNodeWithoutLines(xVertex, yVertex, sortedLevels);
+                if (culledUntil > yVertex) {
+                    yVertex = culledUntil - 1;
+                    continue;
+                }
+                if (isMasked(xVertex, yVertex)) {
+                    continue;
+                }
+                loadCell(xVertex, yVertex);
+                // a NaN corner is never above a level
+                double lowest = cellHasNaN ? Double.NEGATIVE_INFINITY : cellMin;
+                for (int sorted = firstLevelNotBelow(sortedLevels, lowest);
+                     sorted < sortedLevels.length && sortedLevels[sorted] < cellMax; sorted++) {
+                    isoLinesOfCell(sortedLevels[sorted], levelOrder[sorted], isoLevels.length, segments);
+                }
+            }
+        }
+    }
+
+    private boolean isMasked(int xVertex, int yVertex) {
+        return mask != null && !mask.isCellInside(xVertex, yVertex);
+    }
+
+    // the end of the largest pyramid node starting at the cell column that no level crosses, or yVertex
+    private int endOfNodeWithoutLines(int xVertex, int yVertex, double[] sortedLevels) {
+        if (pyramid == null || yVertex % BlockPyramid.BLOCK_CELLS != 0) {
+            return yVertex;
+        }
+        for (int tier = pyramid.tiers() - 1; tier >= 0; tier--) {
+            int node = pyramid.node(tier, xVertex, yVertex);
+            double lowest = pyramid.hasNaN(tier, node) ? Double.NEGATIVE_INFINITY : pyramid.min(tier, node);
+            int sorted = firstLevelNotBelow(sortedLevels, lowest);
+            if (sorted == sortedLevels.length || sortedLevels[sorted] >= pyramid.max(tier, node)) {
+                return pyramid.endYCell(tier, yVertex);
+            }
+        }
+        return yVertex;
+    }
+
+    private void isoLinesOfCell(double isoLevel, int levelIndex, int numberOfLevels, SegmentSink segments) {
+        for (int[] segment : IsoCases.lineSegments(isoLineCase(isoLevel))) {
+            resolvePoint(segment[0], isoLevel, isoLevel);
+            double x1 = pointX;
+            double y1 = pointY;
+            resolvePoint(segment[1], isoLevel, isoLevel);
+            segments.segment(levelIndex,
+                x1, y1, edgeKey(segment[0]) * numberOfLevels + levelIndex,
+                pointX, pointY, edgeKey(segment[1]) * numberOfLevels + levelIndex);
+        }
+    }
+
+    // 2 * vertex for the horizontal and 2 * vertex + 1 for the vertical edge starting at the vertex,
+    // where vertex = xVertex * yVertices + yVertex is the left / bottom end of the edge
+    private long edgeKey(int crossing) {
+        int from = IsoCases.fromCorner(crossing);
+        int to = IsoCases.toCorner(crossing);
+        int xVertex = cellXVertex + Math.min(cornerXOffset(from), cornerXOffset(to));
+        int yVertex = cellYVertex + Math.min(cornerYOffset(from), cornerYOffset(to));
+        long vertex = (long) xVertex * yVertices + yVertex;
+        return 2 * vertex + (IsoCases.isHorizontalEdge(crossing) ? 0 : 1);
+    }
+
+    private static int cornerXOffset(int corner) {
+        return corner == TOP_RIGHT || corner == BOTTOM_RIGHT ? 1 : 0;
+    }
+
+    private static int cornerYOffset(int corner) {
+        return corner == TOP_LEFT || corner == TOP_RIGHT ? 1 : 0;
+    }
+
+    private static int firstLevelNotBelow(double[] sortedLevels, double value) {
+        int from = 0;
+        int to = sortedLevels.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (sortedLevels[middle] < value) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    // Visits every cell of the columns [fromXCell, toXCell) once, bandsLevels must be sorted and band b lies
+    // between bandsLevels[b] and bandsLevels[b + 1]. Only the bands the cell range reaches are contoured and a cell
+    // within a single band is emitted as a whole. Polygons are tagged with the band index and their orientation,
+    // points with pointKey; PolygonBuffer.sortByBand then orders them like contouring one band after another.
+    void isoBands(double[] bandsLevels, int fromXCell, int toXCell, PolygonSink polygons) {
+        int numberOfBands = bandsLevels.length - 1;
+        for (int xVertex = fromXCell; xVertex < toXCell; xVertex++) {
+            for (int yVertex = 0; yVertex < yVertices - 1; yVertex++) {
+                int culledUntil = endOfSingleBandNode(bandsLevels, xVertex, yVertex, polygons);
+                if (culledUntil > yVertex) {
+                    yVertex = culledUntil - 1;
+                    continue;
+                }
+                if (isMasked(xVertex, yVertex)) {
+                    continue;
+                }
+                loadCell(xVertex, yVertex);
+                // a NaN corner is inside every band
+                double lowest = cellHasNaN ? Double.NEGATIVE_INFINITY : cellMin;
+                double highest = cellHasNaN ? Double.POSITIVE_INFINITY : cellMax;
+                int firstBand = Math.max(0, firstLevelNotBelow(bandsLevels, lowest) - 1);
+                if (isWithinSingleBand(bandsLevels, firstBand, lowest, highest)) {
+                    wholeCell(firstBand, polygons);
+                    continue;
+                }
+                for (int band = firstBand; band < numberOfBands && bandsLevels[band] <= highest; band++) {
+                    isoBandsOfCell(bandsLevels[band], bandsLevels[band + 1], band, polygons);
+                }
+            }
+        }
+    }
+
+    // The end of the largest pyramid node at the cell column within a single band or outside the mask, or yVertex.
+    // The node is emitted as one rectangle when its first column is visited, the cells of the other columns are
+    // skipped. A node partly outside the mask is never emitted as a whole.
+    private int endOfSingleBandNode(double[] bandsLevels, int xVertex, int yVertex, PolygonSink polygons) {
+        if (pyramid == null || yVertex % BlockPyramid.BLOCK_CELLS != 0) {
+            return yVertex;
+        }
+        for (int tier = pyramid.tiers() - 1; tier >= 0; tier--) {
+            int node = pyramid.node(tier, xVertex, yVertex);
+            if (pyramid.isMasked(tier, node)) {
+                return pyramid.endYCell(tier, yVertex);
+            }
+            if (pyramid.isPartlyMasked(tier, node)) {
+                continue;
+            }
+            double lowest = pyramid.hasNaN(tier, node) ? Double.NEGATIVE_INFINITY : pyramid.min(tier, node);
+            double highest = pyramid.hasNaN(tier, node) ? Double.POSITIVE_INFINITY : pyramid.max(tier, node);
+            int band = Math.max(0, firstLevelNotBelow(bandsLevels, lowest) - 1);
+            if (isWithinSingleBand(bandsLevels, band, lowest, highest)) {
+                if (xVertex == pyramid.firstXCell(tier, xVertex)) {
+                    wholeNode(band, xVertex, pyramid.endXCell(tier, xVertex), yVertex,
+                        pyramid.endYCell(tier, yVertex), polygons);
+                }
+                return pyramid.endYCell(tier, yVertex);
+            }
+        }
+        return yVertex;
+    }
+
+    // clockwise like wholeCell, through every vertex on the boundary so that it joins the neighbouring cells
+    private void wholeNode(int band, int fromXVertex, int toXVertex, int fromYVertex, int toYVertex,
+                           PolygonSink polygons) {
+        int n = 2 * (toXVertex - fromXVertex) + 2 * (toYVertex - fromYVertex);
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        long[] keys = new long[n];
+        int point = 0;
+        for (int xVertex = fromXVertex; xVertex < toXVertex; xVertex++) {
+            point = addVertex(xVertex, toYVertex, point, xs, ys, keys);
+        }
+        for (int yVertex = toYVertex; yVertex > fromYVertex; yVertex--) {
+            point = addVertex(toXVertex, yVertex, point, xs, ys, keys);
+        }
+        for (int xVertex = toXVertex; xVertex > fromXVertex; xVertex--) {
+            point = addVertex(xVertex, fromYVertex, point, xs, ys, keys);
+        }
+        for (int yVertex = fromYVertex; yVertex < toYVertex; yVertex++) {
+            point = addVertex(fromXVertex, yVertex, point, xs, ys, keys);
+        }
+        polygons.polygon(band, false, xs, ys, keys, n);
+    }
+
+    private int addVertex(int xVertex, int yVertex, int point, double[] xs, double[] ys, long[] keys) {
+        xs[point] = xMin + xVertex * xCell;
+        ys[point] = yMin + yVertex * yCell;
+        keys[point] = 8 * ((long) xVertex * yVertices + yVertex);
+        return point + 1;
+    }
+
+    // all corners inside the band (case 40) and none on the lower level of the next band
+    private static boolean isWithinSingleBand(double[] bandsLevels, int band, double lowest, double highest) {
+        int numberOfBands = bandsLevels.length - 1;
+        if (band >= numberOfBands || bandsLevels[band] > lowest) {
+            return false;
+        }
+        return band + 1 == numberOfBands
+            ? highest <= bandsLevels[band + 1]
+            : highest < bandsLevels[band + 1];
+    }
+
+    private void wholeCell(int band, PolygonSink polygons) {
+        for (int corner = TOP_LEFT; corner <= BOTTOM_LEFT; corner++) {
+            polygonX[corner] = cornerX[corner];
+            polygonY[corner] = cornerY[corner];
+            polygonKeys[corner] = pointKey(corner);
+        }
+        polygons.polygon(band, false, polygonX, polygonY, polygonKeys, 4);
+    }
+
+    private void isoBandsOfCell(double lowerLevel, double upperLevel, int band, PolygonSink polygons) {
+        int caseIndex = isoBandCase(lowerLevel, upperLevel);
+        int centerBit = IsoCases.isBandSaddle(caseIndex)
+            ? isoBandBit(estimatedCenterValue(), lowerLevel, upperLevel)
+            : 0;
+        int[][] cellPolygons = IsoCases.bandPolygons(caseIndex, centerBit);
+        for (int polygon = 0; polygon < cellPolygons.length; polygon++) {
+            int[] points = cellPolygons[polygon];
+            for (int index = 0; index < points.length; index++) {
+                resolvePoint(points[index], lowerLevel, upperLevel);
+                polygonX[index] = pointX;
+                polygonY[index] = pointY;
+                polygonKeys[index] = pointKey(points[index]);
+            }
+            polygons.polygon(band, IsoCases.isBandPolygonCounterClockwise(caseIndex, centerBit, polygon),
+                polygonX, polygonY, polygonKeys, points.length);
+        }
+    }
+
+    // 8 * vertex for a corner and 8 * vertex + 4 * vertical + 1 + upper for a level crossing on the edge starting
+    // at the vertex, so that cells sharing a point give it the same key
+    private long pointKey(int point) {
+        if (IsoCases.isCorner(point)) {
+            long vertex = (long) (cellXVertex + cornerXOffset(point)) * yVertices + cellYVertex + cornerYOffset(point);
+            return 8 * vertex;
+        }
+        return 4 * edgeKey(point) + 1 + (IsoCases.isUpperLevel(point) ? 1 : 0);
+    }
+
+    private void loadCell(int xVertex, int yVertex) {
+        cellXVertex = xVertex;
+        cellYVertex = yVertex;
+        loadCorner(TOP_LEFT, xVertex, yVertex + 1);
+        loadCorner(TOP_RIGHT, xVertex + 1, yVertex + 1);
+        loadCorner(BOTTOM_RIGHT, xVertex + 1, yVertex);
+        loadCorner(BOTTOM_LEFT, xVertex, yVertex);
+
+        cellMin = Double.POSITIVE_INFINITY;
+        cellMax = Double.NEGATIVE_INFINITY;
+        cellHasNaN = false;
+        for (double f : cornerF) {
+            cellMin = f < cellMin ? f : cellMin;
+            cellMax = f > cellMax ? f : cellMax;
+            cellHasNaN |= Double.isNaN(f);
+        }
+    }
+
+    private void loadCorner(int corner, int xVertex, int yVertex) {
+        cornerX[corner] = xMin + xVertex * xCell;
+        cornerY[corner] = yMin + yVertex * yCell;
+        cornerF[corner] = values[xVertex * yVertices + yVertex];
+    }
+
+    private void resolvePoint(int point, double lowerLevel, double upperLevel) {
+        if (IsoCases.isCorner(point)) {
+            pointX = cornerX[point];
+            pointY = cornerY[point];
+            return;
+        }
+        int from = IsoCases.fromCorner(point);
+        int to = IsoCases.toCorner(point);
+        double level = IsoCases.isUpperLevel(point) ? upperLevel : lowerLevel;
+        if (IsoCases.isHorizontalEdge(point)) {
+            pointX = interpolateCoordOfIsoLevel(level, cornerX[from], cornerF[from], cornerX[to], cornerF[to]);
+            pointY = cornerY[from];
+        } else {
+            pointX = cornerX[from];
+            pointY = interpolateCoordOfIsoLevel(level, cornerY[from], cornerF[from], cornerY[to], cornerF[to]);
+        }
+    }
+
+    private double estimatedCenterValue() {
+        return 0.25 * (cornerF[TOP_LEFT] + cornerF[TOP_RIGHT] + cornerF[BOTTOM_RIGHT] + cornerF[BOTTOM_LEFT]);
+    }
+
+    private static double interpolateCoordOfIsoLevel(double isoLevel,
+                                                     double coord1, double f1,
+                                                     double coord2, double f2) {
+        double a = (f1 - f2) / (coord1 - coord2);
+        double b = f1 - a * coord1;
+        return (isoLevel - b) / a;
+    }
+
+    private int isoLineCase(double isoLevel) {
+        int caseIndex = 8 * isoLineBit(cornerF[TOP_LEFT], isoLevel)
+            + 4 * isoLineBit(cornerF[TOP_RIGHT], isoLevel)
+            + 2 * isoLineBit(cornerF[BOTTOM_RIGHT], isoLevel)
+            + isoLineBit(cornerF[BOTTOM_LEFT], isoLevel);
+
+        if ((caseIndex == 5 || caseIndex == 10) && estimatedCenterValue() < isoLevel) {
+            caseIndex = 5 + caseIndex % 10;
+        }
+        return caseIndex;
+    }
+
+    private static int isoLineBit(double value, double isoLevel) {
+        return value > isoLevel ? 1 : 0;
+    }
+
+    private int isoBandCase(double lowerLevel, double upperLevel) {
+        return 27 * isoBandBit(cornerF[TOP_LEFT], lowerLevel, upperLevel)
+            + 9 * isoBandBit(cornerF[TOP_RIGHT], lowerLevel, upperLevel)
+            + 3 * isoBandBit(cornerF[BOTTOM_RIGHT], lowerLevel, upperLevel)
+            + isoBandBit(cornerF[BOTTOM_LEFT], lowerLevel, upperLevel);
+    }
+
+    private static int isoBandBit(double value, double lowerLevel, double upperLevel) {
+        if (value > upperLevel) {
+            return 2;
+        } else if (value < lowerLevel) {
+            return 0;
+        } else {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import static java.lang.Double.POSITIVE_INFINITY;
+
+// Reusable k-NN result buffer, kept sorted by (distanceSq, id) so that every index returns the same neighbours
+final class NearestNeighbours {
+
+    private final int[] ids;
+    private final double[] distancesSq;
+    private int size;
+
+    NearestNeighbours(int capacity) {
+        ids = new int[capacity];
+        distancesSq = new double[capacity];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int id(int index) {
+        return ids[index];
+    }
+
+    double distanceSq(int index) {
+        return distancesSq[index];
+    }
+
+    double worstDistanceSq() {
+        return size < ids.length ? POSITIVE_INFINITY : distancesSq[size - 1];
+    }
+
+    void offer(int id, double distanceSq) {
+        if (size == ids.length && !isCloser(id, distanceSq, size - 1)) {
+            return;
+        }
+        int slot = size < ids.length ? size++ : size - 1;
+        while (slot > 0 && isCloser(id, distanceSq, slot - 1)) {
+            ids[slot] = ids[slot - 1];
+            distancesSq[slot] = distancesSq[slot - 1];
+            slot--;
+        }
+        ids[slot] = id;
+        distancesSq[slot] = distanceSq;
+    }
+
+    private boolean isCloser(int id, double distanceSq, int slot) {
+        return distanceSq < distancesSq[slot] || (distanceSq == distancesSq[slot] && id < ids[slot]);
+    }
+}
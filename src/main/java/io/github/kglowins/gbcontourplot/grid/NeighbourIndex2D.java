@@ -0,0 +1,6 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+interface NeighbourIndex2D {
+
+    void nearest(double x, double y, NearestNeighbours neighbours);
+}
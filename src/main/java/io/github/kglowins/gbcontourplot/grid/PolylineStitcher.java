@@ -0,0 +1,114 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import io.github.kglowins.gbcontourplot.graphics.Polyline;
+import io.github.kglowins.gbcontourplot.graphics.SegmentBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Joins iso line segments sorted by level into polylines through the edge keys of their ends. An edge crossing
+// is shared by at most two cells, so every end has at most one partner end.
+final class PolylineStitcher {
+
+    private static final int NO_PARTNER = -1;
+
+    private final SegmentBuffer segments;
+    private final double[] isoLevels;
+    // end = 2 * segment for (x1, y1) and 2 * segment + 1 for (x2, y2)
+    private final int[] partners;
+    private final boolean[] visited;
+
+    private double[] xs = new double[64];
+    private double[] ys = new double[64];
+    private int points;
+
+    PolylineStitcher(SegmentBuffer segments, double[] isoLevels) {
+        this.segments = segments;
+        this.isoLevels = isoLevels;
+        partners = new int[2 * segments.size()];
+        visited = new boolean[segments.size()];
+    }
+
+    List<Polyline> stitch() {
+        findPartners();
+        List<Polyline> polylines = new ArrayList<>();
+        int levelStart = 0;
+        while (levelStart < segments.size()) {
+            int levelEnd = levelStart;
+            while (levelEnd < segments.size() && segments.level(levelEnd) == segments.level(levelStart)) {
+                levelEnd++;
+            }
+            // open polylines start at an end without a partner, what is left forms closed loops
+            for (int segment = levelStart; segment < levelEnd; segment++) {
+                if (!visited[segment] && partners[2 * segment] == NO_PARTNER) {
+                    polylines.add(trace(2 * segment));
+                } else if (!visited[segment] && partners[2 * segment + 1] == NO_PARTNER) {
+                    polylines.add(trace(2 * segment + 1));
+                }
+            }
+            for (int segment = levelStart; segment < levelEnd; segment++) {
+                if (!visited[segment]) {
+                    polylines.add(trace(2 * segment));
+                }
+            }
+            levelStart = levelEnd;
+        }
+        return polylines;
+    }
+
+    private void findPartners() {
+        Arrays.fill(partners, NO_PARTNER);
+        LongIntHashMap endsByKey = new LongIntHashMap(partners.length);
+        for (int end = 0; end < partners.length; end++) {
+            int partner = endsByKey.putIfAbsent(key(end), end);
+            if (partner != LongIntHashMap.ABSENT) {
+                partners[end] = partner;
+                partners[partner] = end;
+            }
+        }
+    }
+
+    private Polyline trace(int firstEnd) {
+        int level = segments.level(firstEnd >> 1);
+        points = 0;
+        addPoint(firstEnd);
+        int end = firstEnd;
+        boolean closed = false;
+        while (true) {
+            visited[end >> 1] = true;
+            int exit = end ^ 1;
+            int next = partners[exit];
+            if (next == NO_PARTNER) {
+                addPoint(exit);
+                break;
+            }
+            if (next == firstEnd) {
+                closed = true;
+                break;
+            }
+            if (visited[next >> 1]) {
+                addPoint(exit);
+                break;
+            }
+            addPoint(exit);
+            end = next;
+        }
+        return Polyline.of(isoLevels[level], Arrays.copyOf(xs, points), Arrays.copyOf(ys, points), closed);
+    }
+
+    private long key(int end) {
+        return (end & 1) == 0 ? segments.key1(end >> 1) : segments.key2(end >> 1);
+    }
+
+    private void addPoint(int end) {
+        if (points == xs.length) {
+            xs = Arrays.copyOf(xs, 2 * points);
+            ys = Arrays.copyOf(ys, 2 * points);
+        }
+        int segment = end >> 1;
+        xs[points] = (end & 1) == 0 ? segments.x1(segment) : segments.x2(segment);
+        ys[points] = (end & 1) == 0 ? segments.y1(segment) : segments.y2(segment);
+        points++;
+    }
+}
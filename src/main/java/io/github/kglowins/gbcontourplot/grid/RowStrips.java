@@ -0,0 +1,72 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.stream.IntStream.range;
+
+final class RowStrips {
+
+    private static final int STRIPS_PER_THREAD = 4;
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    interface StripTask {
+        void run(int strip, int fromRow, int toRow);
+    }
+
+    private RowStrips() {
+    }
+
+    static int numberOfStrips(int rows, int parallelism, Executor executor) {
+        if (isNull(executor) && parallelism == 1) {
+            return 1;
+        }
+        int threads = parallelism > 1 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(rows, threads * STRIPS_PER_THREAD));
+    }
+
+    static int stripStart(int rows, int strips, int strip) {
+        return (int) ((long) rows * strip / strips);
+    }
+
+    static void forEach(int rows, int parallelism, Executor executor, StripTask task) {
+        int strips = numberOfStrips(rows, parallelism, executor);
+        if (strips == 1) {
+            task.run(0, 0, rows);
+            return;
+        }
+        if (nonNull(executor)) {
+            runOn(executor, rows, strips, task);
+            return;
+        }
+        runOn(pool(parallelism), rows, strips, task);
+    }
+
+    // one pool per parallelism, created on first use and kept, so repeated calls do not start threads again;
+    // its workers are daemon threads
+    private static ForkJoinPool pool(int parallelism) {
+        return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    private static void runOn(Executor executor, int rows, int strips, StripTask task) {
+        CompletableFuture<?>[] futures = range(0, strips)
+            .mapToObj(strip -> CompletableFuture.runAsync(() -> task.run(strip,
+                stripStart(rows, strips, strip), stripStart(rows, strips, strip + 1)), executor))
+            .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
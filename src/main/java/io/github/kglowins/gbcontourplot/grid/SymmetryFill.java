@@ -0,0 +1,118 @@
+package io.github.kglowins.gbcontourplot.grid;
+
+// Decides which grid vertices have to be interpolated under a symmetry and fills in the others: a vertex takes
+// the bilinear value of the cell its fundamental sector image falls into (exactly the value of a vertex when
+// the image is one), and only the corners of those cells are interpolated. Vertices whose image lies outside
+// the grid are interpolated themselves. With a mask, only the vertices it uses are taken care of.
+final class SymmetryFill {
+
+    private static final double SNAP = 1e-9;
+
+    private final int yVertices;
+    private final boolean[] interpolated;
+    // per vertex: the vertex at the low x, low y corner of the cell of its image, or -1 if it is interpolated
+    private final int[] baseVertices;
+    private final double[] xFractions;
+    private final double[] yFractions;
+    private int interpolatedCount;
+
+    SymmetryFill(Grid2DSymmetry symmetry, double xMin, double yMin, double xCell, double yCell,
+                 int xVertices, int yVertices, GridMask mask) {
+        this.yVertices = yVertices;
+        int vertices = xVertices * yVertices;
+        interpolated = new boolean[vertices];
+        baseVertices = new int[vertices];
+        xFractions = new double[vertices];
+        yFractions = new double[vertices];
+
+        double[] image = new double[2];
+        for (int xVertex = 0; xVertex < xVertices; xVertex++) {
+            for (int yVertex = 0; yVertex < yVertices; yVertex++) {
+                int vertex = xVertex * yVertices + yVertex;
+                if (mask != null && !mask.isVertexUsed(vertex)) {
+                    baseVertices[vertex] = -1;
+                    continue;
+                }
+                symmetry.toFundamentalSector(xMin + xCell * xVertex, yMin + yCell * yVertex, image);
+                double xIndex = snap((image[0] - xMin) / xCell);
+                double yIndex = snap((image[1] - yMin) / yCell);
+                if (!(xIndex >= 0 && xIndex <= xVertices - 1 && yIndex >= 0 && yIndex <= yVertices - 1)) {
+                    baseVertices[vertex] = -1;
+                    markInterpolated(vertex);
+                    continue;
+                }
+                int xBase = Math.min((int) xIndex, Math.max(0, xVertices - 2));
+                int yBase = Math.min((int) yIndex, Math.max(0, yVertices - 2));
+                int baseVertex = xBase * yVertices + yBase;
+                baseVertices[vertex] = baseVertex;
+                xFractions[vertex] = xIndex - xBase;
+                yFractions[vertex] = yIndex - yBase;
+                markCorners(vertex, baseVertex);
+            }
+        }
+        // an interpolated vertex is not filled in from its image
+        for (int vertex = 0; vertex < vertices; vertex++) {
+            if (interpolated[vertex]) {
+                baseVertices[vertex] = -1;
+            }
+        }
+    }
+
+    private static double snap(double index) {
+        double rounded = Math.rint(index);
+        return Math.abs(index - rounded) < SNAP ? rounded : index;
+    }
+
+    private void markCorners(int vertex, int baseVertex) {
+        double xFraction = xFractions[vertex];
+        double yFraction = yFractions[vertex];
+        markInterpolated(baseVertex);
+        if (xFraction > 0) {
+            markInterpolated(baseVertex + yVertices);
+        }
+        if (yFraction > 0) {
+            markInterpolated(baseVertex + 1);
+        }
+        if (xFraction > 0 && yFraction > 0) {
+            markInterpolated(baseVertex + yVertices + 1);
+        }
+    }
+
+    private void markInterpolated(int vertex) {
+        if (!interpolated[vertex]) {
+            interpolated[vertex] = true;
+            interpolatedCount++;
+        }
+    }
+
+    boolean isInterpolated(int vertex) {
+        return interpolated[vertex];
+    }
+
+    int interpolatedCount() {
+        return interpolatedCount;
+    }
+
+    // reads interpolated vertices only, so the order of filling does not matter
+    void fill(double[] values) {
+        for (int vertex = 0; vertex < baseVertices.length; vertex++) {
+            int baseVertex = baseVertices[vertex];
+            if (baseVertex < 0) {
+                continue;
+            }
+            double xFraction = xFractions[vertex];
+            double yFraction = yFractions[vertex];
+            double value = (1 - xFraction) * (1 - yFraction) * values[baseVertex];
+            if (xFraction > 0) {
+                value += xFraction * (1 - yFraction) * values[baseVertex + yVertices];
+            }
+            if (yFraction > 0) {
+                value += (1 - xFraction) * yFraction * values[baseVertex + 1];
+            }
+            if (xFraction > 0 && yFraction > 0) {
+                value += xFraction * yFraction * values[baseVertex + yVertices + 1];
+            }
+            values[vertex] = value;
+        }
+    }
+}
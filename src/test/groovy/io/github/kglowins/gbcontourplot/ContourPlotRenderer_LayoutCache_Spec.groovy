@@ -0,0 +1,107 @@
+package io.github.kglowins.gbcontourplot
+
+import io.github.kglowins.gbcontourplot.colormappers.ColorMapTable
+import io.github.kglowins.gbcontourplot.colormappers.TableBasedColorMapper
+import io.github.kglowins.gbcontourplot.graphics.RegionCropStyle
+import io.github.kglowins.gbcontourplot.grid.Function2DValue
+import io.github.kglowins.gbcontourplot.grid.Grid2DInterpolator
+import io.github.kglowins.gbcontourplot.grid.Grid2DValues
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.awt.BasicStroke
+import java.awt.image.BufferedImage
+
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.circleRegion
+import static io.github.kglowins.gbcontourplot.graphics.RegionCropStyle.EXCLUSIVE
+import static io.github.kglowins.gbcontourplot.graphics.RegionCropStyle.INCLUSIVE
+import static java.awt.Color.DARK_GRAY
+import static java.awt.Color.WHITE
+
+class ContourPlotRenderer_LayoutCache_Spec extends Specification {
+
+    static final Grid2DValues GRID_VALUES = Grid2DInterpolator.from((0..20).collectMany { i ->
+        (0..20).collect { j ->
+            def x = -1 + 0.1d * i
+            def y = -1 + 0.1d * j
+            Function2DValue.of(x, y, Math.sin(3 * x) * Math.cos(2 * y))
+        }
+    }).interpolateOnGrid(-1, 1, -1, 1, 30, 30)
+    static final List<Double> ISO_LEVELS = GRID_VALUES.getAutoIsoLevels(6)
+    static final def COLOR_MAPPER = new TableBasedColorMapper(ColorMapTable.DARK_RAINBOW.name())
+
+    def "should compile the plot elements again when the layout changes"() {
+        given:
+        def renderer = plot(10, 10, 10, 10, 100, 100)
+        renderer.toImage()
+
+        when:
+        renderer.setTopMargin(5).setBottomMargin(15).setLeftMargin(20).setRightMargin(30)
+            .setContourWidth(130).setContourHeight(90)
+
+        then:
+        samePixels(renderer.toImage(), plot(5, 15, 20, 30, 130, 90).toImage())
+    }
+
+    @Unroll
+    def "should crop #regionCropStyle iso bands and lines like a filter on their vertices"() {
+        given:
+        def region = circleRegion(0.8)
+        def polygons = GRID_VALUES.toIsoBands(ISO_LEVELS, COLOR_MAPPER)
+        def lineEnds = GRID_VALUES.toIsoLines(ISO_LEVELS)
+        def keptPolygons = polygons.findAll { polygon ->
+            def inside = polygon.polygon.collect { region.contains(it.x(), it.y()) }
+            regionCropStyle == INCLUSIVE ? inside.any() : inside.every()
+        }
+        def keptLineEnds = lineEnds.findAll { le ->
+            def inside = [region.contains(le.x1(), le.y1()), region.contains(le.x2(), le.y2())]
+            regionCropStyle == INCLUSIVE ? inside.any() : inside.every()
+        }
+        def stroke = new BasicStroke(1f)
+
+        when:
+        def cropped = emptyPlot()
+            .addIsoBandsIn(polygons, region, regionCropStyle)
+            .addIsoLinesIn(lineEnds, DARK_GRAY, stroke, region, regionCropStyle)
+            .toImage()
+        def filtered = emptyPlot()
+            .addIsoBands(keptPolygons)
+            .addIsoLines(keptLineEnds, DARK_GRAY, stroke)
+            .toImage()
+
+        then:
+        0 < keptPolygons.size() && keptPolygons.size() < polygons.size()
+        0 < keptLineEnds.size() && keptLineEnds.size() < lineEnds.size()
+        samePixels(cropped, filtered)
+
+        where:
+        regionCropStyle << RegionCropStyle.values()
+    }
+
+    static ContourPlotRenderer plot(int top, int bottom, int left, int right, int width, int height) {
+        new ContourPlotRenderer(-1, 1, -1, 1)
+            .setTopMargin(top)
+            .setBottomMargin(bottom)
+            .setLeftMargin(left)
+            .setRightMargin(right)
+            .setContourWidth(width)
+            .setContourHeight(height)
+            .setBackgroundAndClear(WHITE)
+            .addIsoBandsIn(GRID_VALUES.toIsoBands(ISO_LEVELS, COLOR_MAPPER), circleRegion(0.8), EXCLUSIVE)
+            .addIsoRegions(GRID_VALUES.toMergedIsoBands(ISO_LEVELS, COLOR_MAPPER, GRID_VALUES.FMin, GRID_VALUES.FMax))
+            .addIsoPolylines(GRID_VALUES.toIsoPolylines(ISO_LEVELS), DARK_GRAY, new BasicStroke(0.5f))
+            .addCircularMargin()
+    }
+
+    static ContourPlotRenderer emptyPlot() {
+        new ContourPlotRenderer(-1, 1, -1, 1)
+            .setContourWidth(120)
+            .setContourHeight(120)
+            .setBackgroundAndClear(WHITE)
+    }
+
+    static boolean samePixels(BufferedImage expected, BufferedImage actual) {
+        expected.width == actual.width && expected.height == actual.height &&
+            (0..<expected.width).every { x -> (0..<expected.height).every { y -> expected.getRGB(x, y) == actual.getRGB(x, y) } }
+    }
+}
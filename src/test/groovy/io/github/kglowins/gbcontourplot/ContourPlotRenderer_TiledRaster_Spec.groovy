@@ -0,0 +1,65 @@
+package io.github.kglowins.gbcontourplot
+
+import io.github.kglowins.gbcontourplot.colormappers.ColorMapTable
+import io.github.kglowins.gbcontourplot.colormappers.TableBasedColorMapper
+import io.github.kglowins.gbcontourplot.grid.Function2DValue
+import io.github.kglowins.gbcontourplot.grid.Grid2DInterpolator
+import spock.lang.Specification
+
+import javax.imageio.ImageIO
+import java.awt.BasicStroke
+import java.awt.image.BufferedImage
+import java.nio.file.Files
+
+import static io.github.kglowins.gbcontourplot.graphics.PlotUtils.circle
+import static java.awt.Color.DARK_GRAY
+import static java.awt.Color.WHITE
+
+class ContourPlotRenderer_TiledRaster_Spec extends Specification {
+
+    def "should render tiles that add up to the whole image"() {
+        given:
+        def dataPoints = (0..20).collectMany { i ->
+            (0..20).collect { j ->
+                def x = -1 + 0.1d * i
+                def y = -1 + 0.1d * j
+                Function2DValue.of(x, y, Math.sin(3 * x) * Math.cos(2 * y))
+            }
+        }
+        def gridValues = Grid2DInterpolator.from(dataPoints).interpolateOnGrid(-1, 1, -1, 1, 60, 60)
+        def isoLevels = gridValues.getAutoIsoLevels(6)
+        def colorMapper = new TableBasedColorMapper(ColorMapTable.DARK_RAINBOW.name())
+        // 150 + 10 + 47 by 130 + 10 + 13 pixels, which 64 pixel tiles do not divide
+        def renderer = new ContourPlotRenderer(-1, 1, -1, 1)
+            .setBottomMargin(10)
+            .setTopMargin(13)
+            .setLeftMargin(10)
+            .setRightMargin(47)
+            .setContourWidth(150)
+            .setContourHeight(130)
+            .setBackgroundAndClear(WHITE)
+            .addIsoRegions(gridValues.toMergedIsoBands(isoLevels, colorMapper, gridValues.FMin, gridValues.FMax),
+                circle(1))
+            .addIsoPolylines(gridValues.toIsoPolylines(isoLevels), DARK_GRAY, new BasicStroke(0.5f))
+        def file = Files.createTempFile("tiled", ".png")
+
+        when:
+        def image = renderer.toImage()
+        def tiledImage = renderer.toTiledImage(64, 4)
+        renderer.toTiledRasterFile("png", file.toString(), 64, 4)
+        def readBack = ImageIO.read(file.toFile())
+
+        then:
+        image.width == 207 && image.height == 153
+        samePixels(image, tiledImage)
+        samePixels(image, readBack)
+
+        cleanup:
+        Files.deleteIfExists(file)
+    }
+
+    static boolean samePixels(BufferedImage expected, BufferedImage actual) {
+        expected.width == actual.width && expected.height == actual.height &&
+            (0..<expected.width).every { x -> (0..<expected.height).every { y -> expected.getRGB(x, y) == actual.getRGB(x, y) } }
+    }
+}
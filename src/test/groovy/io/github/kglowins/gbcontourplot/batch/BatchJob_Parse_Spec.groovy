@@ -0,0 +1,48 @@
+package io.github.kglowins.gbcontourplot.batch
+
+import spock.lang.Specification
+
+import java.nio.file.Paths
+
+class BatchJob_Parse_Spec extends Specification {
+
+    def "should parse a job line and resolve its paths against the jobs directory"() {
+        when:
+        def job = BatchJob.parse("input=a.dist  output=/maps/a.jpg grid=0,1,-1,1,50,40 levels=0.5,1.5 range=0,2 " +
+            "colormap=JET region=CUBIC_SST size=250", Paths.get("/jobs"))
+
+        then:
+        job.input() == Paths.get("/jobs/a.dist")
+        job.output() == Paths.get("/maps/a.jpg")
+        job.format() == "jpg"
+        [job.xMin(), job.xMax(), job.yMin(), job.yMax()] == [0d, 1d, -1d, 1d]
+        [job.xCells(), job.yCells()] == [50, 40]
+        job.isoLevels() == [0.5d, 1.5d]
+        [job.rangeMin(), job.rangeMax()] == [0d, 2d]
+        job.colorMap() == "JET"
+        job.region() == PlotRegion.CUBIC_SST
+        job.size() == 250
+    }
+
+    def "should take a single whole number of levels as their count"() {
+        when:
+        def job = BatchJob.parse("input=a.dist output=a.png levels=6", Paths.get("/jobs"))
+
+        then:
+        job.isoLevels() == null
+        job.numberOfIsoLines() == 6
+        job.region() == PlotRegion.NONE
+    }
+
+    def "should reject incomplete and unknown options"() {
+        when:
+        BatchJob.parse(line, Paths.get("/jobs"))
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        line << ["output=a.png", "input=a.dist output=a.png colour=JET", "input=a.dist output=a.png grid=0,1",
+                 "input=a.dist output=a.png region=SQUARE"]
+    }
+}
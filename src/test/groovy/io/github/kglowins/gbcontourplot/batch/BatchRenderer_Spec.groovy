@@ -0,0 +1,52 @@
+package io.github.kglowins.gbcontourplot.batch
+
+import spock.lang.Specification
+
+import javax.imageio.ImageIO
+import java.nio.file.Files
+
+class BatchRenderer_Spec extends Specification {
+
+    def "should render every readable job and report the one that fails"() {
+        given:
+        def directory = Files.createTempDirectory("batch")
+        def lines = (0..10).collectMany { i ->
+            (0..10).collect { j ->
+                def x = -1 + 0.2d * i
+                def y = -1 + 0.2d * j
+                "$x $y 0 0 ${x + y + 2}".toString()
+            }
+        }
+        def regions = [PlotRegion.NONE, PlotRegion.UNIT_CIRCLE, PlotRegion.NONE]
+        def jobs = (0..<3).collect { index ->
+            def input = directory.resolve("map${index}.dist")
+            Files.write(input, ["# x y _ _ f"] + lines)
+            new BatchJob(input, directory.resolve("map${index}.png"))
+                .grid(-1, 1, -1, 1, 10, 10)
+                .numberOfIsoLines(4)
+                .region(regions[index])
+                .size(60)
+        }
+        def badInput = directory.resolve("bad.dist")
+        Files.write(badInput, ["not a number"])
+        jobs.add(1, new BatchJob(badInput, directory.resolve("bad.png")))
+
+        when:
+        def report = new BatchRenderer().withReaders(2).withParallelism(2).withQueueCapacity(1).render(jobs)
+
+        then:
+        report.jobs == 4
+        report.failures.size() == 1
+        report.failures[0].startsWith(badInput.toString())
+        report.stages*.stage == ["read", "interpolate", "contour", "render"]
+        report.stages.every { it.items == jobs.size() - 1 }
+        !Files.exists(directory.resolve("bad.png"))
+        jobs.findAll { it.input() != badInput }.every { job ->
+            def image = ImageIO.read(job.output().toFile())
+            image.width == 60 + 10 + 85 && image.height == 60 + 10 + 10
+        }
+
+        cleanup:
+        directory.toFile().deleteDir()
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.kglowins.gbcontourplot.grid
+
+import io.github.kglowins.gbcontourplot.graphics.Coordinates2D
+import io.github.kglowins.gbcontourplot.graphics.LineEnds
+import spock.lang.Shared
+import spock.lang.Specification
+
+// The fixture holds the output of the switch statements that Grid2DCell had before it interpreted the IsoCases
+// tables, so the tables are checked against an oracle independent of them
+class Grid2DCell_SwitchCases_Spec extends Specification {
+
+    @Shared
+    List<String[]> fixture = Grid2DCell_SwitchCases_Spec.getResource("grid2dcell-switch-cases.txt").readLines()
+        .findAll { !it.startsWith("#") }
+        .collect { it.split(" :", 2) }
+
+    def "should generate the same polygons as the switch for every band case and saddle center"() {
+        given:
+        def bands = fixture.findAll { it[0].startsWith("band") }
+
+        expect:
+        bands.collect { testCell(words(it[0])[2..5]).getIsoBandCase(1, 2) }.unique().size() == 81
+        bands.every { line ->
+            def levels = words(line[0])[0..1]
+            def polygons = testCell(words(line[0])[2..5]).toPolygons(levels[0], levels[1])
+            polygons == parts(line[1]).collect { numbers -> (0..<numbers.size() / 2).collect { Coordinates2D.of(numbers[2 * it], numbers[2 * it + 1]) } }
+        }
+    }
+
+    def "should generate the same line ends as the switch for every line case"() {
+        given:
+        def lines = fixture.findAll { it[0].startsWith("line") }
+
+        expect:
+        lines.collect { testCell(words(it[0])[1..4]).getIsoLineCase(1) }.unique().size() == 16
+        lines.every { line ->
+            def lineEnds = testCell(words(line[0])[1..4]).toLineEnds(words(line[0])[0])
+            lineEnds == parts(line[1]).collect { numbers -> LineEnds.of(numbers[0], numbers[1], numbers[2], numbers[3]) }
+        }
+    }
+
+    private static List<Double> words(String text) {
+        text.trim().split(" ").drop(1).collect { it as double }
+    }
+
+    private static List<List<Double>> parts(String text) {
+        text.trim().isEmpty() ? [] : text.split("\\|").collect { part -> part.trim().split(" ").collect { it as double } }
+    }
+
+    private static Grid2DCell testCell(List<Double> f) {
+        new Grid2DCell(
+            Function2DValue.of(0.25, -0.2, f[0]),
+            Function2DValue.of(0.5, -0.2, f[1]),
+            Function2DValue.of(0.5, -0.4, f[2]),
+            Function2DValue.of(0.25, -0.4, f[3])
+        )
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.kglowins.gbcontourplot.grid
+
+import io.github.kglowins.gbcontourplot.graphics.RegionPredicate
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class Grid2DInterpolator_Channels_Spec extends Specification {
+
+    def "should interpolate every channel as if it were interpolated on its own"() {
+        given:
+        def random = new Random(5)
+        def xs = (0..<200).collect { random.nextDouble() * 2 - 1 }
+        def ys = (0..<200).collect { random.nextDouble() * 2 - 1 }
+        def channels = (0..<3).collect { (0..<200).collect { random.nextDouble() } as double[] }
+        def pointsOf = { double[] fs -> (0..<200).collect { Function2DValue.of(xs[it], ys[it], fs[it]) } }
+
+        when:
+        def grids = Grid2DInterpolator.from(pointsOf(channels[0])).withMaxNearest(5)
+            .interpolateChannelsOnGrid(-1, 1, -1, 1, 15, 12, channels as double[][])
+
+        then:
+        grids.size() == 3
+        (0..<3).every {
+            grids[it].values == Grid2DInterpolator.from(pointsOf(channels[it])).withMaxNearest(5)
+                .interpolateOnGrid(-1, 1, -1, 1, 15, 12).values
+        }
+    }
+
+    def "should reject a channel without one value per data point"() {
+        given:
+        def dataPoints = [Function2DValue.of(0, 0, 1), Function2DValue.of(1, 0, 2)]
+
+        when:
+        Grid2DInterpolator.from(dataPoints).interpolateChannelsOnGrid(0, 1, 0, 1, 2, 2, [1, 2] as double[], [1] as double[])
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    @Unroll
+    def "should fill the grid from the fundamental sector of a #fold-fold dihedral symmetry"() {
+        given:
+        def random = new Random(11)
+        def dataPoints = []
+        (0..<40).each {
+            def r = random.nextDouble()
+            def angle = random.nextDouble() * 2 * Math.PI
+            def f = random.nextDouble()
+            (0..<fold).each { k ->
+                [angle, -angle].each { mirrored ->
+                    def rotated = mirrored + 2 * Math.PI * k / fold
+                    dataPoints << Function2DValue.of(r * Math.cos(rotated), r * Math.sin(rotated), f)
+                }
+            }
+        }
+        def plain = Grid2DInterpolator.from(dataPoints).withMaxNearest(dataPoints.size())
+            .interpolateOnGrid(-1, 1, -1, 1, 40, 40)
+
+        when:
+        def symmetric = Grid2DInterpolator.from(dataPoints).withMaxNearest(dataPoints.size())
+            .withSymmetry(Grid2DSymmetry.dihedral(fold, 0))
+            .interpolateOnGrid(-1, 1, -1, 1, 40, 40)
+
+        then:
+        // square grid vertices map onto vertices under 4mm, hexagonal images fall between them
+        (0..<plain.values.length).sum { Math.abs(symmetric.values[it] - plain.values[it]) } / plain.values.length < meanDifference
+
+        where:
+        fold | meanDifference
+        4    | 1e-12
+        6    | 2e-2
+    }
+
+    def "should apply a symmetry to compiled weights like interpolateOnGrid"() {
+        given:
+        def random = new Random(13)
+        def dataPoints = (0..<150).collect { Function2DValue.of(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1, random.nextDouble()) }
+        def region = { double x, double y -> x * x + y * y <= 1 } as RegionPredicate
+        def interpolator = Grid2DInterpolator.from(dataPoints).withMaxNearest(5)
+            .withSymmetry(Grid2DSymmetry.dihedral(6, 0))
+
+        when:
+        def compiled = interpolator.compileWeights(-1, 1, -1, 1, 30, 30, region).apply(dataPoints)
+
+        then:
+        compiled.values == interpolator.interpolateOnGrid(-1, 1, -1, 1, 30, 30, region).values
+    }
+}
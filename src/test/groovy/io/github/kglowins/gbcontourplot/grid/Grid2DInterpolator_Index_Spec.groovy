@@ -0,0 +1,58 @@
+package io.github.kglowins.gbcontourplot.grid
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class Grid2DInterpolator_Index_Spec extends Specification {
+
+    @Unroll
+    def "#indexType should find the same neighbours as a brute force search"(IndexType indexType) {
+        given:
+        def random = new Random(7)
+        def dataPoints = (0..<500).collect {
+            Function2DValue.of(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1, random.nextDouble())
+        }
+        def interpolator = Grid2DInterpolator.from(dataPoints).withMaxNearest(7).withIndex(indexType)
+
+        expect:
+        (0..<200).every {
+            def x = random.nextDouble() * 3 - 1.5
+            def y = random.nextDouble() * 3 - 1.5
+            interpolator.interpolateAt(x, y) == bruteForce(dataPoints, x, y, 7)
+        }
+
+        where:
+        indexType << IndexType.values()
+    }
+
+    def "should produce identical grids for all index types"() {
+        given:
+        def random = new Random(11)
+        def dataPoints = (0..<300).collect {
+            Function2DValue.of(Math.round(random.nextDouble() * 20) / 10 - 1, random.nextDouble(), random.nextDouble())
+        }.unique { [it.x(), it.y()] }
+
+        when:
+        def grids = IndexType.values().collect {
+            Grid2DInterpolator.from(dataPoints).withIndex(it).interpolateOnGrid(-1, 1, 0, 1, 20, 10)
+        }
+
+        then:
+        grids.collect { it.values }.unique().size() == 1
+    }
+
+    private static double bruteForce(List<Function2DValue> dataPoints, double x, double y, int maxNearest) {
+        def nearest = dataPoints.withIndex()
+            .collect { point, id -> [id, (point.x() - x) * (point.x() - x) + (point.y() - y) * (point.y() - y)] }
+            .sort { a, b -> a[1] <=> b[1] ?: a[0] <=> b[0] }
+            .take(maxNearest)
+        double nominator = 0
+        double denominator = 0
+        nearest.each { id, distanceSq ->
+            double inverseDistanceSq = 1 / (distanceSq + 1e-10)
+            nominator += inverseDistanceSq * dataPoints[id].f()
+            denominator += inverseDistanceSq
+        }
+        return nominator / denominator
+    }
+}
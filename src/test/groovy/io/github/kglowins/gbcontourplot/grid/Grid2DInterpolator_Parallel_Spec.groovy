@@ -0,0 +1,34 @@
+package io.github.kglowins.gbcontourplot.grid
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.Executors
+
+class Grid2DInterpolator_Parallel_Spec extends Specification {
+
+    @Unroll
+    def "should interpolate the same values serially, with parallelism and on an executor with #indexType"() {
+        given:
+        def random = new Random(17)
+        def dataPoints = (0..<500).collect { Function2DValue.of(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1, random.nextDouble()) }
+        def interpolator = { Grid2DInterpolator.from(dataPoints).withIndex(indexType).withMaxNearest(6) }
+        def pool = Executors.newFixedThreadPool(3)
+
+        when:
+        def serial = interpolator().interpolateOnGrid(-1, 1, -1, 1, 150, 130)
+        def parallel = interpolator().withParallelism(4).interpolateOnGrid(-1, 1, -1, 1, 150, 130)
+        def onExecutor = interpolator().withExecutor(pool).interpolateOnGrid(-1, 1, -1, 1, 150, 130)
+
+        then:
+        parallel.values == serial.values
+        onExecutor.values == serial.values
+        interpolator().withParallelism(4).interpolateOnGrid(-1, 1, -1, 1, 150, 130).values == serial.values
+
+        cleanup:
+        pool.shutdown()
+
+        where:
+        indexType << IndexType.values()
+    }
+}
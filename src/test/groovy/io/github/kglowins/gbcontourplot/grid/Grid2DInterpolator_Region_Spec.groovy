@@ -0,0 +1,81 @@
+package io.github.kglowins.gbcontourplot.grid
+
+import io.github.kglowins.gbcontourplot.colormappers.ColorMapTable
+import io.github.kglowins.gbcontourplot.colormappers.TableBasedColorMapper
+import io.github.kglowins.gbcontourplot.graphics.Coordinates2D
+import io.github.kglowins.gbcontourplot.graphics.RegionPredicate
+import spock.lang.Specification
+
+class Grid2DInterpolator_Region_Spec extends Specification {
+
+    static final RegionPredicate UNIT_DISC = { double x, double y -> x * x + y * y <= 1 } as RegionPredicate
+
+    def "should leave cells outside the region out of interpolation and contouring"() {
+        given:
+        def random = new Random(3)
+        def dataPoints = (0..<300).collect { Function2DValue.of(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1, random.nextDouble()) }
+        def interpolator = Grid2DInterpolator.from(dataPoints).withMaxNearest(5)
+        def whole = interpolator.interpolateOnGrid(-1, 1, -1, 1, 40, 40)
+        def region = UNIT_DISC
+        def masked = interpolator.interpolateOnGrid(-1, 1, -1, 1, 40, 40, region)
+        def colorMapper = new TableBasedColorMapper(ColorMapTable.DARK_RAINBOW.name())
+        def isoLevels = [0.3d, 0.5d, 0.7d]
+        def insideCells = (0..<40).sum { xVertex ->
+            (0..<40).count { yVertex ->
+                [[0, 0], [0, 1], [1, 0], [1, 1]].any { dx, dy -> region.contains(-1 + 0.05d * (xVertex + dx), -1 + 0.05d * (yVertex + dy)) }
+            }
+        }
+
+        expect:
+        (0..<whole.values.length).every { Double.isNaN(masked.values[it]) || masked.values[it] == whole.values[it] }
+        masked.nanCount > 0
+        Math.abs(masked.toIsoBands(isoLevels, colorMapper, 0, 1).sum { Math.abs(signedArea(it.polygon)) } - insideCells * 0.05 * 0.05) < 1e-9
+        masked.withBlockPyramid().toMergedIsoBands(isoLevels, colorMapper, 0, 1) ==
+            interpolator.interpolateOnGrid(-1, 1, -1, 1, 40, 40, region).toMergedIsoBands(isoLevels, colorMapper, 0, 1)
+    }
+
+    def "should contour only the cells in the region of an existing grid"() {
+        given:
+        def random = new Random(7)
+        def dataPoints = (0..<300).collect { Function2DValue.of(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1, random.nextDouble()) }
+        def interpolator = Grid2DInterpolator.from(dataPoints).withMaxNearest(5)
+        def masked = interpolator.interpolateOnGrid(-1, 1, -1, 1, 40, 40, UNIT_DISC)
+        def colorMapper = new TableBasedColorMapper(ColorMapTable.DARK_RAINBOW.name())
+        def isoLevels = [0.3d, 0.5d, 0.7d]
+
+        when:
+        def whole = interpolator.interpolateOnGrid(-1, 1, -1, 1, 40, 40)
+        def wholeNanCount = whole.nanCount
+        whole.withRegion(UNIT_DISC)
+
+        then:
+        whole.nanCount == wholeNanCount
+        whole.toIsoBands(isoLevels, colorMapper, 0, 1) == masked.toIsoBands(isoLevels, colorMapper, 0, 1)
+        whole.toIsoLines(isoLevels) == masked.toIsoLines(isoLevels)
+    }
+
+    def "should compile weights only for the vertices of the region"() {
+        given:
+        def random = new Random(9)
+        def dataPoints = (0..<300).collect { Function2DValue.of(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1, random.nextDouble()) }
+        def interpolator = Grid2DInterpolator.from(dataPoints).withMaxNearest(5)
+
+        when:
+        def compiled = interpolator.compileWeights(-1, 1, -1, 1, 40, 40, UNIT_DISC).apply(dataPoints)
+
+        then:
+        def masked = interpolator.interpolateOnGrid(-1, 1, -1, 1, 40, 40, UNIT_DISC)
+        compiled.nanCount == masked.nanCount
+        compiled.nanCount > 0
+        (0..<masked.values.length).every {
+            Double.isNaN(masked.values[it]) ? Double.isNaN(compiled.values[it]) : compiled.values[it] == masked.values[it]
+        }
+    }
+
+    private static double signedArea(List<Coordinates2D> ring) {
+        (0..<ring.size()).sum { index ->
+            def next = ring[(index + 1) % ring.size()]
+            ring[index].x() * next.y() - next.x() * ring[index].y()
+        } / 2
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.kglowins.gbcontourplot.grid
+
+import spock.lang.Specification
+
+class Grid2DValues_IsoPolylines_Spec extends Specification {
+
+    def "should join the iso lines of a radial function into one closed polyline per level"() {
+        given:
+        def values = [] as List<Double>
+        (0..40).each { xVertex -> (0..40).each { yVertex -> values << Math.hypot(xVertex - 20.5, yVertex - 19.5) } }
+        def gridValues = new Grid2DValues(0, 0, 1, 1, 41, 41, values as double[])
+
+        when:
+        def polylines = gridValues.toIsoPolylines([5d, 10d, 15d])
+
+        then:
+        polylines*.isoLevel() == [5d, 10d, 15d]
+        polylines.every { it.closed() }
+        polylines*.size() == [5d, 10d, 15d].collect { isoLevel -> gridValues.toIsoLines([isoLevel]).size() }
+    }
+
+    def "should cover every iso line segment exactly once"() {
+        given:
+        def random = new Random(13)
+        def values = (0..<(30 * 25)).collect { random.nextInt(4) + random.nextDouble() } as double[]
+        def gridValues = new Grid2DValues(-1, -1, 0.1, 0.2, 30, 25, values)
+        def isoLevels = [1.5d, 2.5d, 0.5d]
+
+        when:
+        def polylines = gridValues.toIsoPolylines(isoLevels)
+
+        then:
+        def stitched = polylines.collectMany { polyline ->
+            def segments = polyline.closed() ? polyline.size() : polyline.size() - 1
+            (0..<segments).collect { segment ->
+                def next = (segment + 1) % polyline.size()
+                undirected(polyline.xs()[segment], polyline.ys()[segment], polyline.xs()[next], polyline.ys()[next])
+            }
+        }
+        def expected = gridValues.toIsoLines(isoLevels).collect { undirected(it.x1(), it.y1(), it.x2(), it.y2()) }
+        stitched.sort() == expected.sort()
+        polylines.size() < expected.size() / 5
+    }
+
+    private static String undirected(double x1, double y1, double x2, double y2) {
+        [[x1, y1].toString(), [x2, y2].toString()].sort().join(" ")
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.kglowins.gbcontourplot.grid
+
+import io.github.kglowins.gbcontourplot.colormappers.ColorMapTable
+import io.github.kglowins.gbcontourplot.colormappers.TableBasedColorMapper
+import io.github.kglowins.gbcontourplot.graphics.IsoBandSink
+import io.github.kglowins.gbcontourplot.graphics.IsoLineSink
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class Grid2DValues_MarchingSquares_Spec extends Specification {
+
+    @Unroll
+    def "should produce the same iso lines and iso bands as Grid2DCell for #description"() {
+        given:
+        def random = new Random(seed)
+        def values = (0..<(21 * 17)).collect { valueOf(random) } as double[]
+        def gridValues = new Grid2DValues(-1, 0.5, 0.1, 0.03, 21, 17, values)
+        def isoLevels = [1.0d, 2.0d, 3.0d]
+        def bandsLevels = [Double.MIN_VALUE] + isoLevels + [Double.MAX_VALUE]
+        def cells = gridValues.toCells()
+
+        when:
+        def isoLines = gridValues.toIsoLines(isoLevels)
+        def isoBands = gridValues.toIsoBands(isoLevels, new TableBasedColorMapper(ColorMapTable.DARK_RAINBOW.name()), 0, 4)
+
+        then:
+        isoLines == isoLevels.collectMany { isoLevel -> cells.collectMany { it.toLineEnds(isoLevel) } }
+        isoBands*.polygon == (0..isoLevels.size()).collectMany { band ->
+            cells.collectMany { it.toPolygons(bandsLevels[band], bandsLevels[band + 1]) }
+        }
+
+        where:
+        description                         | seed | valueOf
+        "values hitting the levels exactly" | 3    | { Random it -> it.nextInt(5) as double }
+        "continuous values"                 | 5    | { Random it -> it.nextDouble() * 4 }
+    }
+
+    def "should produce the same iso lines and iso bands in parallel strips"() {
+        given:
+        def random = new Random(9)
+        def values = (0..<(40 * 30)).collect { random.nextDouble() * 4 } as double[]
+        def colorMapper = new TableBasedColorMapper(ColorMapTable.DARK_RAINBOW.name())
+        def serial = new Grid2DValues(0, 0, 0.1, 0.1, 40, 30, values)
+        def parallel = new Grid2DValues(0, 0, 0.1, 0.1, 40, 30, values).withParallelism(3)
+
+        expect:
+        parallel.toIsoLines([2.5d, 0.5d, 1.5d]) == serial.toIsoLines([2.5d, 0.5d, 1.5d])
+        parallel.toIsoBands([0.5d, 1.5d, 2.5d], colorMapper, 0, 4) == serial.toIsoBands([0.5d, 1.5d, 2.5d], colorMapper, 0, 4)
+    }
+
+    @Unroll
+    def "should stream the same iso lines and iso bands into sinks with parallelism #parallelism"() {
+        given:
+        def random = new Random(11)
+        def values = (0..<(40 * 30)).collect { random.nextDouble() * 4 } as double[]
+        def gridValues = new Grid2DValues(0, 0, 0.1, 0.1, 40, 30, values).withParallelism(parallelism)
+        def isoLevels = [2.5d, 0.5d, 1.5d]
+        def streamedLines = []
+        def streamedBands = []
+
+        when:
+        gridValues.toIsoLines(isoLevels, { level, x1, y1, x2, y2 -> streamedLines << [level, x1, y1, x2, y2] } as IsoLineSink)
+        gridValues.toIsoBands(isoLevels, { band, xs, ys, n ->
+            streamedBands << [band, (0..<n).collect { [xs[it], ys[it]] }]
+        } as IsoBandSink)
+
+        then:
+        def segments = gridValues.toIsoLines(isoLevels)
+        streamedLines.sort { it[0] }.collect { it.tail() } == segments.collect { [it.x1(), it.y1(), it.x2(), it.y2()] }
+        def polygons = gridValues.toIsoBands(isoLevels, new TableBasedColorMapper(ColorMapTable.DARK_RAINBOW.name()), 0, 4)
+        streamedBands.sort { it[0] }.collect { it[1] } == polygons.collect { it.polygon.collect { [it.x(), it.y()] } }
+
+        where:
+        parallelism << [1, 3]
+    }
+
+    def "should produce the same iso lines and merged iso bands with a block pyramid"() {
+        given:
+        def values = [] as List<Double>
+        (0..60).each { xVertex -> (0..50).each { yVertex -> values << Math.sin(0.1 * xVertex) + Math.cos(0.07 * yVertex) } }
+        def colorMapper = new TableBasedColorMapper(ColorMapTable.DARK_RAINBOW.name())
+        def plain = new Grid2DValues(0, 0, 0.1, 0.1, 61, 51, values as double[])
+        def culled = new Grid2DValues(0, 0, 0.1, 0.1, 61, 51, values as double[]).withBlockPyramid()
+        def isoLevels = [-1.5d, -0.5d, 0.5d, 1.5d]
+
+        expect:
+        culled.toIsoLines(isoLevels) == plain.toIsoLines(isoLevels)
+        culled.toMergedIsoBands(isoLevels, colorMapper, -2, 2) == plain.toMergedIsoBands(isoLevels, colorMapper, -2, 2)
+        culled.toIsoBands(isoLevels, colorMapper, -2, 2).size() < plain.toIsoBands(isoLevels, colorMapper, -2, 2).size()
+    }
+}
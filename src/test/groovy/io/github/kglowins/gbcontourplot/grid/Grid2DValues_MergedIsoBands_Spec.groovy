@@ -0,0 +1,55 @@
+package io.github.kglowins.gbcontourplot.grid
+
+import io.github.kglowins.gbcontourplot.colormappers.ColorMapTable
+import io.github.kglowins.gbcontourplot.colormappers.TableBasedColorMapper
+import io.github.kglowins.gbcontourplot.graphics.Coordinates2D
+import spock.lang.Specification
+
+class Grid2DValues_MergedIsoBands_Spec extends Specification {
+
+    def colorMapper = new TableBasedColorMapper(ColorMapTable.DARK_RAINBOW.name())
+
+    def "should merge the band around a radial minimum into one region with one hole"() {
+        given:
+        def values = [] as List<Double>
+        (0..40).each { xVertex -> (0..40).each { yVertex -> values << Math.hypot(xVertex - 20.5, yVertex - 19.5) } }
+        def gridValues = new Grid2DValues(0, 0, 1, 1, 41, 41, values as double[])
+
+        when:
+        def regions = gridValues.toMergedIsoBands([5d, 10d], colorMapper, 0, 30)
+
+        then:
+        regions*.holes*.size() == [0, 1, 1]
+        regions.every { signedArea(it.outline) > 0 && it.holes.every { hole -> signedArea(hole) < 0 } }
+    }
+
+    def "should cover the same area as the polygons of every band"() {
+        given:
+        def random = new Random(17)
+        def values = (0..<(30 * 25)).collect { random.nextInt(4) + random.nextDouble() } as double[]
+        def gridValues = new Grid2DValues(-1, -1, 0.1, 0.2, 30, 25, values)
+        def isoLevels = [1.5d, 2.5d, 0.5d]
+
+        when:
+        def regions = gridValues.toMergedIsoBands(isoLevels, colorMapper, 0, 4)
+        def polygons = gridValues.toIsoBands(isoLevels, colorMapper, 0, 4)
+
+        then:
+        def mergedAreas = regions.groupBy { it.color }.collectEntries { color, colored ->
+            [color, colored.sum { signedArea(it.outline) + (it.holes.sum { signedArea(it) } ?: 0) }]
+        }
+        def polygonAreas = polygons.groupBy { it.color }.collectEntries { color, colored ->
+            [color, colored.sum { Math.abs(signedArea(it.polygon)) }]
+        }
+        mergedAreas.keySet() == polygonAreas.keySet()
+        mergedAreas.every { color, area -> Math.abs(area - polygonAreas[color]) < 1e-9 }
+        regions.size() < polygons.size() / 5
+    }
+
+    private static double signedArea(List<Coordinates2D> ring) {
+        (0..<ring.size()).sum { index ->
+            def next = ring[(index + 1) % ring.size()]
+            ring[index].x() * next.y() - next.x() * ring[index].y()
+        } / 2
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.kglowins.gbcontourplot.grid
+
+import spock.lang.Specification
+
+class Grid2DValues_Statistics_Spec extends Specification {
+
+    def "should compute the statistics once, leaving NaN values out, and share the cells"() {
+        given:
+        def gridValues = new Grid2DValues(0, 0, 1, 1, 2, 3, [1, Double.NaN, 4, -2, 7, Double.NaN] as double[])
+
+        expect:
+        gridValues.getFMin() == -2
+        gridValues.getFMax() == 7
+        gridValues.getMean() == 2.5
+        gridValues.getNanCount() == 2
+        gridValues.toCells().is(gridValues.toCells())
+    }
+
+    def "should report NaN statistics when every value is NaN"() {
+        given:
+        def gridValues = new Grid2DValues(0, 0, 1, 1, 2, 2, [Double.NaN] * 4 as double[])
+
+        expect:
+        Double.isNaN(gridValues.getFMin())
+        Double.isNaN(gridValues.getFMax())
+        Double.isNaN(gridValues.getMean())
+        gridValues.getNanCount() == 4
+        gridValues.toIsoLines([0.5d]).isEmpty()
+    }
+
+    def "should keep its values and statistics when the caller refills its array"() {
+        given:
+        def buffer = [0, 1, 2, 3] as double[]
+        def gridValues = new Grid2DValues(0, 0, 1, 1, 2, 2, buffer)
+        def isoLines = gridValues.toIsoLines([1.5d])
+
+        when:
+        Arrays.fill(buffer, 10)
+
+        then:
+        gridValues.values == [0, 1, 2, 3] as double[]
+        gridValues.getFMax() == 3
+        gridValues.toIsoLines([1.5d]) == isoLines
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.kglowins.gbcontourplot.grid
+
+import io.github.kglowins.gbcontourplot.colormappers.ColorMapper
+import io.github.kglowins.gbcontourplot.graphics.RegionPredicate
+import spock.lang.Specification
+
+import java.awt.Color
+
+class Heatmap_Spec extends Specification {
+
+    static final ColorMapper RED_SCALE = { double value -> new Color((float) value, 0f, 0f) } as ColorMapper
+
+    def "should colour every pixel like the iso band polygons around it"() {
+        given:
+        def gridValues = linear(11, 5) { x, y -> x }
+        def isoLevels = [2.5d, 5d, 7.5d]
+
+        when:
+        def image = Heatmap.ofIsoBands(gridValues, isoLevels, RED_SCALE).toImage(20, 4, 0, 10, 0, 4)
+
+        then:
+        def bandColors = gridValues.toIsoBands(isoLevels, RED_SCALE)
+            .findAll { polygon -> polygon.polygon.every { it.x() <= 2.5 } || polygon.polygon.every { it.x() >= 7.5 } }
+            .collect { it.color.getRGB() }
+            .unique()
+        bandColors.size() == 2
+        (0..<4).every { row -> image.getRGB(0, row) == bandColors.min() && image.getRGB(19, row) == bandColors.max() }
+        (0..<20).collect { column -> image.getRGB(column, 0) }.unique().size() == 4
+    }
+
+    def "should leave pixels outside the region and next to NaN vertices transparent"() {
+        given:
+        def gridValues = linear(11, 5) { x, y -> x == 10 ? Double.NaN : y }
+
+        when:
+        def image = Heatmap.continuous(gridValues, RED_SCALE, 0, 4)
+            .withRegion({ x, y -> x > 2 } as RegionPredicate)
+            .withParallelism(2)
+            .toImage(10, 4, 0, 10, 0, 4)
+
+        then:
+        (0..<4).every { row -> alpha(image.getRGB(0, row)) == 0 && alpha(image.getRGB(1, row)) == 0 }
+        (0..<4).every { row -> alpha(image.getRGB(9, row)) == 0 }
+        (0..<4).every { row -> (2..8).every { column -> alpha(image.getRGB(column, row)) == 255 } }
+        // row 0 lies at the top, where y and so the red component are the largest
+        new Color(image.getRGB(5, 0)).red > new Color(image.getRGB(5, 3)).red
+    }
+
+    private static Grid2DValues linear(int xVertices, int yVertices, Closure<Double> f) {
+        def values = [] as List<Double>
+        (0..<xVertices).each { xVertex -> (0..<yVertices).each { yVertex -> values << f(xVertex, yVertex) } }
+        new Grid2DValues(0, 0, 1, 1, xVertices, yVertices, values as double[])
+    }
+
+    private static int alpha(int argb) {
+        argb >>> 24
+    }
+}